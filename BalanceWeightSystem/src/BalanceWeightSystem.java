@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -13,6 +14,9 @@ import java.util.Collection;
  * <pre>public static Collection&lt;Weight&gt; calculateSolution(
  *                  WeightFamily family, Weight desiredTotalWeight)</pre>
  *
+ * <p>Subclasses may override <code>calculateSolutions</code> to solve a
+ * batch of totals faster than one at a time.</p>
+ *
  * @author CS 390K Section 001
  * @version $Id: BalanceWeightSystem.java 446 2016-11-17 17:15:07Z joe $
  */
@@ -50,5 +54,52 @@ public abstract class BalanceWeightSystem {
      */
     public abstract Collection<Weight> calculateSolution(
             final Weight desiredTotalWeight);
-}
 
+    /**
+     * Given an array of desired total weights, calculate a minimum-sized
+     * collection of weights for each. The totals are solved in ascending
+     * order, so that systems which keep their work between calls solve
+     * each total from the smaller ones.
+     *
+     * @param targets the desired total weight values
+     * @return the solutions, indexed in the order of the targets
+     * @throws IllegalArgumentException if a target is not positive, or
+     *         there are too many targets for the family
+     */
+    public WeightSolutions calculateSolutions(final int[] targets)
+            throws IllegalArgumentException {
+        WeightSolutions solutions = new WeightSolutions(
+                getFamily().getWeights().toArray(new Weight[0]), targets);
+        for (int index : ascendingOrder(targets)) {
+            solutions.addAll(index,
+                    calculateSolution(new Weight(targets[index])));
+        }
+        return solutions;
+    }
+
+    /**
+     * Return the indices of an array of desired total weights in ascending
+     * order of total.
+     *
+     * @param targets the desired total weight values
+     * @return the indices of the targets, sorted by target
+     * @throws IllegalArgumentException if a target is not positive
+     */
+    protected static int[] ascendingOrder(final int[] targets)
+            throws IllegalArgumentException {
+        long[] keys = new long[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] <= 0) {
+                throw new IllegalArgumentException(
+                        "Value must be positive.");
+            }
+            keys[i] = ((long) targets[i] << Integer.SIZE) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[targets.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+}
@@ -1,22 +1,42 @@
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Set;
 
 /**
  * An implementation of BalanceWeightSystem utilizing a dynamic programming
  * algorithm.
  *
+ * <p>The table is filled bottom-up in two primitive arrays indexed by
+ * subtotal: <code>minCount[t]</code> is the size of a minimum solution for
+ * the subtotal <code>t</code>, and <code>lastWeight[t]</code> is the index,
+ * in ascending order of value, of a weight ending such a solution. A
+ * solution is reconstructed on demand by following
+ * <code>lastWeight</code> back to 0, so the table takes O(goal) ints rather
+ * than a collection of weights per subtotal. The table grows as larger
+ * goals are requested and is never recomputed.</p>
+ *
+ * <p>An instance may be shared by many threads. The table is published as
+ * an immutable {@link Table} snapshot through a volatile field, so a query
+ * whose goal is already computed reads it without locking. A query past
+ * the frontier takes the instance's lock, and the single writer extends
+ * the table and publishes a new snapshot; entries at or below a
+ * snapshot's frontier are never written again.</p>
+ *
  * @author Bennett Alex Myers
  * @version 11/28/2016
  */
 public class DynamicProgrammingBalanceWeightSystem
         extends BalanceWeightSystem {
 
-    /** Mapping of previously calculated solutions for this instance. */
-    private HashMap<Integer, Collection<Weight>> solutionMemo;
+    /** Initial number of subtotals allocated in the table. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The weights of the family in ascending order of value. */
+    private final Weight[] weights;
+    /** The values of the weights, in the same order. */
+    private final int[] values;
+    /** The most recently published table. */
+    private volatile Table table;
 
     /**
      * Given a family of weights, create a new balance weight system based on
@@ -26,8 +46,13 @@ public class DynamicProgrammingBalanceWeightSystem
      */
     public DynamicProgrammingBalanceWeightSystem(final WeightFamily family) {
         super(family);
-        this.solutionMemo = new HashMap<>();
-        this.solutionMemo.put(0, new ArrayList<Weight>());
+        this.weights = family.getWeights().toArray(new Weight[0]);
+        this.values = new int[this.weights.length];
+        for (int i = 0; i < this.weights.length; i++) {
+            this.values[i] = this.weights[i].getValue();
+        }
+        this.table = new Table(new int[INITIAL_CAPACITY],
+                new int[INITIAL_CAPACITY], 0);
     }
 
     /**
@@ -42,35 +67,132 @@ public class DynamicProgrammingBalanceWeightSystem
     public Collection<Weight> calculateSolution(
             final Weight desiredTotalWeight) {
         int goal = desiredTotalWeight.getValue();
-        if (!this.solutionMemo.containsKey(goal)) {
-            memoize(goal);
+        Table table = this.table;
+        if (goal > table.computed) {
+            table = fill(goal);
+        }
+        return reconstruct(table, goal);
+    }
+
+    /**
+     * Given an array of desired total weights, calculate a minimum-sized
+     * collection of weights for each. The table is filled once up to the
+     * largest target, and each solution is then read back from it.
+     *
+     * @param targets the desired total weight values
+     * @return the solutions, indexed in the order of the targets
+     * @throws IllegalArgumentException if a target is not positive, or
+     *         there are too many targets for the family
+     */
+    @Override
+    public WeightSolutions calculateSolutions(final int[] targets)
+            throws IllegalArgumentException {
+        int[] order = ascendingOrder(targets);
+        WeightSolutions solutions = new WeightSolutions(this.weights,
+                targets);
+        if (order.length == 0) {
+            return solutions;
+        }
+        int max = targets[order[order.length - 1]];
+        Table table = this.table;
+        if (max > table.computed) {
+            table = fill(max);
+        }
+        int[] last = table.lastWeight;
+        for (int index : order) {
+            for (int t = targets[index]; t > 0;
+                    t -= this.values[last[t]]) {
+                solutions.add(index, last[t]);
+            }
         }
-        return this.solutionMemo.get(goal);
+        return solutions;
     }
 
     /**
-     * Fill out the mapping of solutions for this BalanceWeightSystem.
+     * Fill out the table of minimum solutions up to the given subtotal,
+     * continuing from the largest subtotal already computed, and publish
+     * the result. Only one thread extends the table at a time.
      *
      * @param goal the weight value of the desired weight whose solution
      *             to calculate
+     * @return a table computed at least up to the goal
      */
-    private void memoize(final int goal) {
-        for (int i = 1; i <= goal; i++) {
-            HashSet<List<Weight>> partitions = new HashSet<>();
-            for (Weight w : getFamily()) {
-                int current = w.getValue();
-                ArrayList<Weight> solution = new ArrayList<>();
-                if (current <= i) {
-                    solution.add(w);
-                    if (current < i) {
-                        solution.addAll(calculateSolution(
-                                new Weight(i - current)));
-                        solution.sort(null);
-                    }
-                    partitions.add(solution);
+    private synchronized Table fill(final int goal) {
+        Table current = this.table;
+        if (goal <= current.computed) {
+            return current;
+        }
+        int[] minCount = current.minCount;
+        int[] lastWeight = current.lastWeight;
+        if (goal >= minCount.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE,
+                    Math.max(goal + 1L, 2L * minCount.length));
+            minCount = Arrays.copyOf(minCount, capacity);
+            lastWeight = Arrays.copyOf(lastWeight, capacity);
+        }
+        for (int t = current.computed + 1; t <= goal; t++) {
+            int best = Integer.MAX_VALUE;
+            int last = 0;
+            for (int k = 0; k < this.values.length && this.values[k] <= t;
+                    k++) {
+                int count = minCount[t - this.values[k]] + 1;
+                if (count < best) {
+                    best = count;
+                    last = k;
                 }
             }
-            this.solutionMemo.put(i, minimum(partitions));
+            minCount[t] = best;
+            lastWeight[t] = last;
+        }
+        Table next = new Table(minCount, lastWeight, goal);
+        this.table = next;
+        return next;
+    }
+
+    /**
+     * Rebuild the minimum solution for a computed subtotal by following
+     * the last weight of each solution back to 0.
+     *
+     * @param table a table computed at least up to the goal
+     * @param goal a subtotal no greater than the largest computed
+     * @return the weights of the solution in ascending order
+     */
+    private Collection<Weight> reconstruct(final Table table,
+            final int goal) {
+        ArrayList<Weight> solution = new ArrayList<>(table.minCount[goal]);
+        for (int t = goal; t > 0; t -= this.values[table.lastWeight[t]]) {
+            solution.add(this.weights[table.lastWeight[t]]);
+        }
+        solution.sort(null);
+        return solution;
+    }
+
+    /**
+     * A snapshot of the table of minimum solutions. The arrays may be
+     * longer than the frontier and shared with later snapshots, which
+     * write only past this snapshot's frontier.
+     */
+    private static final class Table {
+
+        /** Size of a minimum solution for each subtotal computed. */
+        private final int[] minCount;
+        /** Index of the last weight of a minimum solution per subtotal. */
+        private final int[] lastWeight;
+        /** The largest subtotal computed in this snapshot. */
+        private final int computed;
+
+        /**
+         * Create a snapshot of the table.
+         *
+         * @param minCount the minimum solution sizes
+         * @param lastWeight the last weight indices
+         * @param computed the largest subtotal computed
+         */
+        private Table(final int[] minCount, final int[] lastWeight,
+                final int computed) {
+            this.minCount = minCount;
+            this.lastWeight = lastWeight;
+            this.computed = computed;
         }
     }
 
@@ -93,17 +215,21 @@ public class DynamicProgrammingBalanceWeightSystem
     }
 
     /**
-     * Utility method that returns the minimum-sized list of weights, given a
-     * set of lists of weights.
-     * The set of lists of weights is assumed to be non-empty.
+     * Given a family of weights and an array of desired total weights,
+     * calculate a minimum-sized collection of weights for each, with a
+     * single table for the whole batch.
      *
-     * @param partitions a nonempty set of lists of weights
-     * @return the minimum-sized list of weights from the given set
+     * @param family the family of weights with which to calculate solutions
+     * @param targets the desired total weight values
+     * @return the solutions, indexed in the order of the targets
+     * @throws IllegalArgumentException if a target is not positive, or
+     *         there are too many targets for the family
      */
-    private static Collection<Weight> minimum(
-            final Set<List<Weight>> partitions) {
-        return partitions.stream()
-                .min((l1, l2) -> (l1.size() - l2.size()))
-                .get();
+    public static WeightSolutions calculateSolutions(
+            final WeightFamily family,
+            final int[] targets) throws IllegalArgumentException {
+        DynamicProgrammingBalanceWeightSystem dpbws =
+                new DynamicProgrammingBalanceWeightSystem(family);
+        return dpbws.calculateSolutions(targets);
     }
 }
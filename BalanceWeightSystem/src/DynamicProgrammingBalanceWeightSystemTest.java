@@ -8,6 +8,11 @@ import java.util.HashMap;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Tests for DynamicProgrammingBalanceWeightSystem.
@@ -172,6 +177,101 @@ public class DynamicProgrammingBalanceWeightSystemTest {
                         weight))));
     }
 
+    /**
+     * Checks that solutions for smaller goals are still reconstructed
+     * correctly after the table has grown for a larger goal.
+     */
+    @Test
+    public void calculateSolutionDescendingTest() {
+        bwsys.calculateSolution(new Weight(1000));
+        SOLUTION_MAP.forEach((weight, solutionSet) ->
+                assertTrue(containsSolution(solutionSet,
+                           bwsys.calculateSolution(weight))));
+    }
+
+    /**
+     * Checks a goal of a million units, whose solution is 166665 sixes
+     * and two fives.
+     */
+    @Test
+    public void calculateSolutionLargeGoalTest() {
+        final int goal = 1000000;
+        Collection<Weight> solution =
+                bwsys.calculateSolution(new Weight(goal));
+        assertEquals(166667, solution.size());
+        assertEquals(goal, solution.stream()
+                .mapToInt(Weight::getValue).sum());
+    }
+
+    /**
+     * Checks correctness of the solutions produced for a batch of targets,
+     * given in no particular order and with repeats.
+     */
+    @Test
+    public void calculateSolutionsTest() {
+        int[] targets = new int[2 * SOLUTION_MAP.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = SOLUTION_MAP.size() - i % SOLUTION_MAP.size();
+        }
+        WeightSolutions solutions =
+                DynamicProgrammingBalanceWeightSystem.calculateSolutions(
+                        DEFAULT_FAMILY, targets);
+        assertEquals(targets.length, solutions.size());
+        for (int i = 0; i < targets.length; i++) {
+            assertEquals(targets[i], solutions.getTarget(i));
+            Collection<Weight> solution = solutions.getSolution(i);
+            assertEquals(solution.size(), solutions.getCount(i));
+            assertTrue(containsSolution(
+                    SOLUTION_MAP.get(new Weight(targets[i])), solution));
+        }
+    }
+
+    /**
+     * Verifies exception for a target that is not positive.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void calculateSolutionsTargetException() {
+        bwsys.calculateSolutions(new int[] {3, 0});
+    }
+
+    /**
+     * Checks that threads sharing one instance, with goals that extend the
+     * table while others read it, get the same solutions as a fresh
+     * instance.
+     *
+     * @throws Exception if a thread is interrupted or fails
+     */
+    @Test
+    public void calculateSolutionConcurrentTest() throws Exception {
+        final WeightFamily family = new WeightFamily(Arrays.asList(
+                new Weight(1), new Weight(5), new Weight(6), new Weight(9)));
+        final DynamicProgrammingBalanceWeightSystem shared =
+                new DynamicProgrammingBalanceWeightSystem(family);
+        final int threads = 8;
+        final int goals = 2000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int n = 0; n < threads; n++) {
+            final long seed = n;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < goals; i++) {
+                    Weight goal = new Weight(1 + random.nextInt(20 * i + 1));
+                    if (!shared.calculateSolution(goal).equals(
+                            DynamicProgrammingBalanceWeightSystem
+                            .calculateSolution(family, goal))) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        pool.shutdown();
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+    }
+
     /**
      * Support method for tests. Verifies that a given solution set contains a
      * particular solution.
@@ -0,0 +1,94 @@
+import java.util.Collection;
+
+/**
+ * An implementation of BalanceWeightSystem that chooses its algorithm by
+ * the family of weights. When the family is canonical, the greedy
+ * algorithm is optimal and takes time linear in the size of the family;
+ * otherwise the dynamic programming algorithm is used.
+ *
+ * @author Bennett Alex Myers
+ * @version 11/28/2016
+ * @see WeightFamily#isCanonical()
+ */
+public class OptimalBalanceWeightSystem
+        extends BalanceWeightSystem {
+
+    /** The system to which queries are passed. */
+    private final BalanceWeightSystem delegate;
+
+    /**
+     * Given a family of weights, create a new balance weight system based on
+     * that family which uses the greedy algorithm if it is optimal for the
+     * family and the dynamic programming algorithm otherwise.
+     *
+     * @param family the family of weights with which to calculate a solution
+     */
+    public OptimalBalanceWeightSystem(final WeightFamily family) {
+        super(family);
+        if (family.isCanonical()) {
+            this.delegate = new GreedyBalanceWeightSystem(family);
+        } else {
+            this.delegate = new DynamicProgrammingBalanceWeightSystem(family);
+        }
+    }
+
+    /**
+     * Return whether this system uses the greedy algorithm.
+     *
+     * @return <code>true</code> if the family of weights is canonical and
+     *         the greedy algorithm is used
+     */
+    public boolean isGreedy() {
+        return this.delegate instanceof GreedyBalanceWeightSystem;
+    }
+
+    /**
+     * Given a desired total weight, calculate and return a minimum-sized
+     * collection of weights from this object's weight family such that the
+     * sum of the weights of the solution is the given desired total weight.
+     *
+     * @param desiredTotalWeight the desired total weight of the solution
+     * @return a minimum-sized collection of weights whose sum is the given
+     *         desired total weight
+     */
+    public Collection<Weight> calculateSolution(
+            final Weight desiredTotalWeight) {
+        return this.delegate.calculateSolution(desiredTotalWeight);
+    }
+
+    /**
+     * Given an array of desired total weights, calculate a minimum-sized
+     * collection of weights for each with the chosen algorithm.
+     *
+     * @param targets the desired total weight values
+     * @return the solutions, indexed in the order of the targets
+     * @throws IllegalArgumentException if a target is not positive, or
+     *         there are too many targets for the family
+     */
+    @Override
+    public WeightSolutions calculateSolutions(final int[] targets)
+            throws IllegalArgumentException {
+        return this.delegate.calculateSolutions(targets);
+    }
+
+    /**
+     * Given a family of weights and a desired total weight, calculate and
+     * return a minimum-sized collection of weights such that the sum of the
+     * weights of the solution is the given desired total weight.
+     *
+     * @param family the family of weights with which to calculate a solution
+     * @param desiredTotalWeight the desired total weight of the solution
+     * @return a minimum-sized collection fo weights whose sum is the given
+     *         desired total weight
+     */
+    public static Collection<Weight> calculateSolution(
+            final WeightFamily family,
+            final Weight desiredTotalWeight) {
+        if (family.isCanonical()) {
+            return GreedyBalanceWeightSystem.calculateSolution(family,
+                    desiredTotalWeight);
+        }
+        return DynamicProgrammingBalanceWeightSystem.calculateSolution(
+                family, desiredTotalWeight);
+    }
+}
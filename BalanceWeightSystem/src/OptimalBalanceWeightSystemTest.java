@@ -0,0 +1,82 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import java.util.Arrays;
+
+/**
+ * Tests for OptimalBalanceWeightSystem.
+ *
+ * @author Bennett Alex Myers
+ * @version 11/28/2016
+ */
+public class OptimalBalanceWeightSystemTest {
+
+    /** Largest total checked. */
+    private static final int MAX_TOTAL = 500;
+
+    /** Canonical family of weights for testing. */
+    private static final WeightFamily CANONICAL_FAMILY =
+            new WeightFamily(Arrays.asList(new Weight(1), new Weight(5),
+                    new Weight(10), new Weight(25)));
+
+    /** Family of weights for which greedy solutions are not minimum. */
+    private static final WeightFamily NON_CANONICAL_FAMILY =
+            new WeightFamily(Arrays.asList(new Weight(1), new Weight(2),
+                    new Weight(5), new Weight(6)));
+
+    /**
+     * Verifies that the greedy algorithm is chosen only for a canonical
+     * family.
+     */
+    @Test
+    public void dispatchTest() {
+        assertTrue(new OptimalBalanceWeightSystem(CANONICAL_FAMILY)
+                .isGreedy());
+        assertFalse(new OptimalBalanceWeightSystem(NON_CANONICAL_FAMILY)
+                .isGreedy());
+    }
+
+    /**
+     * Checks that solutions have the minimum size and the right total for
+     * both kinds of family.
+     */
+    @Test
+    public void calculateSolutionTest() {
+        for (WeightFamily family : Arrays.asList(CANONICAL_FAMILY,
+                NON_CANONICAL_FAMILY)) {
+            OptimalBalanceWeightSystem bwsys =
+                    new OptimalBalanceWeightSystem(family);
+            for (int total = 1; total <= MAX_TOTAL; total++) {
+                Weight goal = new Weight(total);
+                int sum = 0;
+                for (Weight w : bwsys.calculateSolution(goal)) {
+                    sum += w.getValue();
+                }
+                assertEquals(total, sum);
+                assertEquals(DynamicProgrammingBalanceWeightSystem
+                        .calculateSolution(family, goal).size(),
+                        bwsys.calculateSolution(goal).size());
+                assertEquals(bwsys.calculateSolution(goal),
+                        OptimalBalanceWeightSystem.calculateSolution(
+                                family, goal));
+            }
+        }
+    }
+
+    /**
+     * Checks that batch solutions agree with solutions of one target at a
+     * time.
+     */
+    @Test
+    public void calculateSolutionsTest() {
+        OptimalBalanceWeightSystem bwsys =
+                new OptimalBalanceWeightSystem(NON_CANONICAL_FAMILY);
+        int[] targets = {10, 1, 13, 400};
+        WeightSolutions solutions = bwsys.calculateSolutions(targets);
+        for (int i = 0; i < targets.length; i++) {
+            assertEquals(bwsys.calculateSolution(new Weight(targets[i])),
+                    solutions.getSolution(i));
+        }
+    }
+}
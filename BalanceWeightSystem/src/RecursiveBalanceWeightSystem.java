@@ -1,18 +1,63 @@
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
 import java.util.ArrayList;
-import java.util.Set;
 
 /**
  * An implementation of BalanceWeightSystem utilizing a recursive algorithm.
  *
+ * <p>The search is a depth-first branch and bound. For each subtotal the
+ * weights are tried largest first, so a good solution is found early, and
+ * a branch is abandoned as soon as it cannot use fewer weights than the
+ * best solution found so far. No subtotal needs more weights than its
+ * value divided by the largest weight, rounded up, which stops the search
+ * once a solution that small is found.</p>
+ *
+ * <p>Results are memoized across calls in primitive arrays indexed by
+ * subtotal: the size of a minimum solution and the index of its last
+ * weight once known, and otherwise the best lower bound proved by a pruned
+ * search. The first path of the search takes one step per weight of a
+ * solution, so it can be as deep as the goal is large; the recursion is
+ * therefore run on an explicit stack of primitive arrays rather than the
+ * call stack.</p>
+ *
+ * <p>The memo is shared by all calls on an instance, which are therefore
+ * synchronized.</p>
+ *
  * @author Bennett Alex Myers
  * @version 11/18/2016
  */
 public class RecursiveBalanceWeightSystem
         extends BalanceWeightSystem {
 
+    /** Initial number of subtotals allocated in the memo. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Result of a search step whose subtotal must be searched. */
+    private static final int UNRESOLVED = -1;
+
+    /** The weights of the family in ascending order of value. */
+    private final Weight[] weights;
+    /** The values of the weights, in the same order. */
+    private final int[] values;
+    /** Size of a minimum solution for each subtotal; 0 if not known. */
+    private int[] minCount;
+    /** Index of the last weight of a minimum solution for each subtotal. */
+    private int[] lastWeight;
+    /** Proven lower bound on the solution size for each subtotal. */
+    private int[] lowerBound;
+    /** Subtotal searched by each frame of the search stack. */
+    private int[] frameTotal;
+    /** Solution sizes of interest are less than this, for each frame. */
+    private int[] frameLimit;
+    /** Lower bound on the solution size, for each frame. */
+    private int[] frameBound;
+    /** Index of the weight being tried, for each frame. */
+    private int[] frameWeight;
+    /** Size of the best solution found so far, for each frame. */
+    private int[] frameBest;
+    /** Index of the last weight of that solution, for each frame. */
+    private int[] frameLast;
+
     /**
      * Given a family of weights, create a new balance weight system based on
      * that family which implements a recursive algorithm.
@@ -21,6 +66,20 @@ public class RecursiveBalanceWeightSystem
      */
     public RecursiveBalanceWeightSystem(final WeightFamily family) {
         super(family);
+        this.weights = family.getWeights().toArray(new Weight[0]);
+        this.values = new int[this.weights.length];
+        for (int i = 0; i < this.weights.length; i++) {
+            this.values[i] = this.weights[i].getValue();
+        }
+        this.minCount = new int[INITIAL_CAPACITY];
+        this.lastWeight = new int[INITIAL_CAPACITY];
+        this.lowerBound = new int[INITIAL_CAPACITY];
+        this.frameTotal = new int[INITIAL_CAPACITY];
+        this.frameLimit = new int[INITIAL_CAPACITY];
+        this.frameBound = new int[INITIAL_CAPACITY];
+        this.frameWeight = new int[INITIAL_CAPACITY];
+        this.frameBest = new int[INITIAL_CAPACITY];
+        this.frameLast = new int[INITIAL_CAPACITY];
     }
 
     /**
@@ -32,9 +91,128 @@ public class RecursiveBalanceWeightSystem
      * @return a minimum-sized collection of weights whose sum is the given
      *         desired total weight
      */
-    public Collection<Weight> calculateSolution(
+    public synchronized Collection<Weight> calculateSolution(
             final Weight desiredTotalWeight) {
-        return calculateSolution(getFamily(), desiredTotalWeight);
+        int goal = desiredTotalWeight.getValue();
+        ensureCapacity(goal);
+        search(goal, Integer.MAX_VALUE);
+        ArrayList<Weight> solution = new ArrayList<>(this.minCount[goal]);
+        for (int t = goal; t > 0; t -= this.values[this.lastWeight[t]]) {
+            solution.add(this.weights[this.lastWeight[t]]);
+        }
+        solution.sort(null);
+        return solution;
+    }
+
+    /**
+     * Find the size of a minimum solution for a subtotal, if it is smaller
+     * than a limit. When it is, the size and last weight are memoized.
+     * Each frame tries the weights largest first, searching the rest of
+     * the subtotal after each with a limit one less than the best size
+     * found so far.
+     *
+     * @param goal the subtotal to solve
+     * @param goalLimit the solution sizes of interest are less than this
+     * @return the size of a minimum solution if it is less than the limit;
+     *         otherwise a lower bound on the size that is at least the limit
+     */
+    private int search(final int goal, final int goalLimit) {
+        int result = resolve(goal, goalLimit, 0);
+        int depth = 1;
+        if (result != UNRESOLVED) {
+            return result;
+        }
+        while (true) {
+            int top = depth - 1;
+            if (result != UNRESOLVED) {
+                if (result < this.frameBest[top] - 1) {
+                    this.frameBest[top] = result + 1;
+                    this.frameLast[top] = this.frameWeight[top];
+                }
+                this.frameWeight[top]--;
+            }
+            int total = this.frameTotal[top];
+            int k = this.frameWeight[top];
+            while (k >= 0 && this.values[k] > total) {
+                k--;
+            }
+            this.frameWeight[top] = k;
+            if (k >= 0 && this.frameBest[top] > this.frameBound[top]) {
+                result = resolve(total - this.values[k],
+                        this.frameBest[top] - 1, depth);
+                if (result == UNRESOLVED) {
+                    depth++;
+                }
+                continue;
+            }
+            if (this.frameLast[top] < 0) {
+                this.lowerBound[total] = this.frameLimit[top];
+                result = this.frameLimit[top];
+            } else {
+                this.minCount[total] = this.frameBest[top];
+                this.lastWeight[total] = this.frameLast[top];
+                result = this.frameBest[top];
+            }
+            depth--;
+            if (depth == 0) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Resolve a search of a subtotal from the memo and bounds if possible,
+     * and otherwise push a frame to search it.
+     *
+     * @param total the subtotal to solve
+     * @param limit the solution sizes of interest are less than this
+     * @param depth the index at which to push a frame
+     * @return the result of the search, or UNRESOLVED if a frame was pushed
+     */
+    private int resolve(final int total, final int limit, final int depth) {
+        if (total == 0) {
+            return 0;
+        }
+        if (this.minCount[total] > 0) {
+            return this.minCount[total];
+        }
+        int largest = this.values[this.values.length - 1];
+        int bound = Math.max(this.lowerBound[total],
+                (total + largest - 1) / largest);
+        if (bound >= limit) {
+            return bound;
+        }
+        if (depth == this.frameTotal.length) {
+            int capacity = 2 * depth;
+            this.frameTotal = Arrays.copyOf(this.frameTotal, capacity);
+            this.frameLimit = Arrays.copyOf(this.frameLimit, capacity);
+            this.frameBound = Arrays.copyOf(this.frameBound, capacity);
+            this.frameWeight = Arrays.copyOf(this.frameWeight, capacity);
+            this.frameBest = Arrays.copyOf(this.frameBest, capacity);
+            this.frameLast = Arrays.copyOf(this.frameLast, capacity);
+        }
+        this.frameTotal[depth] = total;
+        this.frameLimit[depth] = limit;
+        this.frameBound[depth] = bound;
+        this.frameWeight[depth] = this.values.length - 1;
+        this.frameBest[depth] = limit;
+        this.frameLast[depth] = -1;
+        return UNRESOLVED;
+    }
+
+    /**
+     * Grow the memo, if necessary, to hold the given subtotal.
+     *
+     * @param goal the largest subtotal the memo must hold
+     */
+    private void ensureCapacity(final int goal) {
+        if (goal >= this.minCount.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE,
+                    Math.max(goal + 1L, 2L * this.minCount.length));
+            this.minCount = Arrays.copyOf(this.minCount, capacity);
+            this.lastWeight = Arrays.copyOf(this.lastWeight, capacity);
+            this.lowerBound = Arrays.copyOf(this.lowerBound, capacity);
+        }
     }
 
     /**
@@ -50,36 +228,8 @@ public class RecursiveBalanceWeightSystem
     public static Collection<Weight> calculateSolution(
             final WeightFamily family,
             final Weight desiredTotalWeight) {
-        int goal = desiredTotalWeight.getValue();
-        HashSet<List<Weight>> partitions = new HashSet<>();
-        for (Weight w : family) {
-            int current = w.getValue();
-            ArrayList<Weight> solution = new ArrayList<>();
-            if (current <= goal) {
-                if (current < goal) {
-                    solution.addAll(
-                        calculateSolution(family, new Weight(goal - current)));
-                }
-                solution.add(w);
-                solution.sort(null);
-                partitions.add(solution);
-            }
-        }
-        return minimum(partitions);
-    }
-
-    /**
-     * Utility method that returns the minimum-sized list of weights, given a
-     * set of lists of weights.
-     * The set of lists of weights is assumed to be non-empty.
-     *
-     * @param partitions a nonempty set of lists of weights
-     * @return the minimum-sized list of weights from the given set
-     */
-    private static Collection<Weight> minimum(
-            final Set<List<Weight>> partitions) {
-        return partitions.stream()
-                .min((l1, l2) -> (l1.size() - l2.size()))
-                .get();
+        RecursiveBalanceWeightSystem rbws =
+                new RecursiveBalanceWeightSystem(family);
+        return rbws.calculateSolution(desiredTotalWeight);
     }
 }
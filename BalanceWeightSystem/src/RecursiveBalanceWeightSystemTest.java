@@ -190,6 +190,66 @@ public class RecursiveBalanceWeightSystemTest {
                                 weight))));
     }
 
+    /**
+     * Checks solution sizes against the dynamic programming system for
+     * goals far beyond the reach of unpruned recursion, with a family for
+     * which the greedy algorithm is correct and with one for which it
+     * is not.
+     */
+    @Test
+    public void calculateSolutionLargeGoalTest() {
+        final int goals = 500;
+        WeightFamily coins = new WeightFamily(Arrays.asList(new Weight(5),
+                WEIGHT_10, new Weight(25)));
+        for (WeightFamily family : Arrays.asList(coins, DEFAULT_FAMILY)) {
+            RecursiveBalanceWeightSystem rbws =
+                    new RecursiveBalanceWeightSystem(family);
+            DynamicProgrammingBalanceWeightSystem dpbws =
+                    new DynamicProgrammingBalanceWeightSystem(family);
+            for (int goal = goals; goal > 0; goal--) {
+                Weight weight = new Weight(goal);
+                Collection<Weight> solution = rbws.calculateSolution(weight);
+                assertEquals(dpbws.calculateSolution(weight).size(),
+                        solution.size());
+                assertEquals(goal, solution.stream()
+                        .mapToInt(Weight::getValue).sum());
+            }
+        }
+        assertEquals(400, RecursiveBalanceWeightSystem.calculateSolution(
+                coins, new Weight(10000)).size());
+        assertEquals(166667, RecursiveBalanceWeightSystem.calculateSolution(
+                DEFAULT_FAMILY, new Weight(1000000)).size());
+    }
+
+    /**
+     * Checks a goal whose solution takes a small weight many times after
+     * the large weights, so the search path is as deep as the goal.
+     */
+    @Test
+    public void calculateSolutionDeepPathTest() {
+        final int largest = 100000;
+        WeightFamily family = new WeightFamily(Arrays.asList(
+                new Weight(largest)));
+        assertEquals(largest - 1, RecursiveBalanceWeightSystem
+                .calculateSolution(family, new Weight(largest - 1)).size());
+        assertEquals(2, RecursiveBalanceWeightSystem
+                .calculateSolution(family, new Weight(largest + 1)).size());
+    }
+
+    /**
+     * Checks that the batch solutions agree with solutions of one target
+     * at a time.
+     */
+    @Test
+    public void calculateSolutionsTest() {
+        int[] targets = {15, 1, 9, 200, 10, 9};
+        WeightSolutions solutions = bwsys.calculateSolutions(targets);
+        for (int i = 0; i < targets.length; i++) {
+            assertEquals(bwsys.calculateSolution(new Weight(targets[i])),
+                    solutions.getSolution(i));
+        }
+    }
+
     /**
      * Support method for tests. Verifies that a given solution set contains a
      * particular solution.
@@ -70,6 +70,82 @@ public class WeightFamily implements Iterable<Weight> {
         return this.family.size();
     }
 
+    /**
+     * Return whether this family of weights is canonical, that is, whether
+     * the greedy algorithm, which repeatedly takes the largest weight that
+     * fits, finds a minimum-sized solution for every desired total weight.
+     *
+     * <p>This uses Pearson's O(n<sup>3</sup>) test. Writing the weights in
+     * descending order as c<sub>1</sub> &gt; ... &gt; c<sub>n</sub> = 1,
+     * if any total has no greedy minimum solution then the smallest such
+     * total has a minimum solution formed, for some i &le; j, by taking
+     * the greedy solution of c<sub>i-1</sub> - 1, keeping only its weights
+     * c<sub>1</sub> through c<sub>j</sub>, and adding one more
+     * c<sub>j</sub>. Each of the O(n<sup>2</sup>) candidates is checked
+     * against the greedy solution of its total in O(n).</p>
+     *
+     * @return <code>true</code> if the greedy algorithm is optimal for
+     *         this family of weights
+     */
+    public boolean isCanonical() {
+        int n = this.family.size();
+        long[] values = new long[n];
+        int k = n;
+        for (Weight w : this.family) {
+            values[--k] = w.getValue();
+        }
+        long[] greedy = new long[n];
+        for (int i = 1; i < n; i++) {
+            greedyCounts(values, values[i - 1] - 1, greedy);
+            long prefixTotal = 0;
+            long prefixCount = 0;
+            // The greedy solution uses no weight before i.
+            for (int j = i; j < n; j++) {
+                prefixTotal += greedy[j] * values[j];
+                prefixCount += greedy[j];
+                long total = prefixTotal + values[j];
+                long count = prefixCount + 1;
+                if (greedyCount(values, total) > count) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute how many of each weight the greedy solution of a total uses.
+     *
+     * @param values the weight values in descending order, ending with 1
+     * @param total the total to solve
+     * @param counts receives the number of uses of each weight
+     */
+    private static void greedyCounts(final long[] values, final long total,
+            final long[] counts) {
+        long rest = total;
+        for (int k = 0; k < values.length; k++) {
+            counts[k] = rest / values[k];
+            rest %= values[k];
+        }
+    }
+
+    /**
+     * Compute the size of the greedy solution of a total.
+     *
+     * @param values the weight values in descending order, ending with 1
+     * @param total the total to solve
+     * @return the number of weights in the greedy solution
+     */
+    private static long greedyCount(final long[] values, final long total) {
+        long rest = total;
+        long count = 0;
+        for (long value : values) {
+            count += rest / value;
+            rest %= value;
+        }
+        return count;
+    }
+
     /**
      * Returns an iterator over the weights in this family of weights in their
      * natural order.
@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.Collection;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Random;
 
 /**
  * Tests for WeightFamily.
@@ -145,6 +146,66 @@ public class WeightFamilyTest {
         assertFalse(itr.hasNext());
     }
 
+    /**
+     * Support method for tests. Creates a family from weight values.
+     *
+     * @param values the values of the weights
+     * @return the family of weights
+     */
+    private static WeightFamily family(final int... values) {
+        Collection<Weight> weights = new TreeSet<>();
+        for (int value : values) {
+            weights.add(new Weight(value));
+        }
+        return new WeightFamily(weights);
+    }
+
+    /**
+     * Checks known canonical and non-canonical families.
+     */
+    @Test
+    public void isCanonicalTest() {
+        assertTrue(this.singleton.isCanonical());
+        assertTrue(this.defaultFamily.isCanonical());
+        assertTrue(family(1, 5, 10, 25).isCanonical());
+        assertTrue(family(1, 2, 5, 10, 20, 50, 100, 200).isCanonical());
+        assertFalse(family(1, 2, 5, 6).isCanonical());
+        assertFalse(family(1, 3, 4).isCanonical());
+        assertFalse(family(1, 10, 25).isCanonical());
+    }
+
+    /**
+     * Checks the test against greedy and minimum solutions of every total
+     * up to the sum of the two largest weights, beyond which the smallest
+     * counterexample cannot lie, for random families.
+     */
+    @Test
+    public void isCanonicalRandomTest() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 500; trial++) {
+            int[] values = new int[1 + random.nextInt(5)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = 1 + random.nextInt(30);
+            }
+            WeightFamily family = family(values);
+            DynamicProgrammingBalanceWeightSystem dp =
+                    new DynamicProgrammingBalanceWeightSystem(family);
+            Weight[] sorted = family.getWeights().toArray(new Weight[0]);
+            int bound = sorted[sorted.length - 1].getValue();
+            if (sorted.length > 1) {
+                bound += sorted[sorted.length - 2].getValue();
+            }
+            boolean canonical = true;
+            for (int total = 1; total <= bound; total++) {
+                Weight goal = new Weight(total);
+                canonical &= dp.calculateSolution(goal).size()
+                        == GreedyBalanceWeightSystem.calculateSolution(
+                                family, goal).size();
+            }
+            assertEquals(family.toString(), canonical, family.isCanonical());
+        }
+    }
+
     /**
      * Checks string rendering.
      */
@@ -0,0 +1,160 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * The solutions to a batch of weight composition problems over one family
+ * of weights, as computed by
+ * {@link BalanceWeightSystem#calculateSolutions(int[])}.
+ *
+ * <p>Each solution is stored compactly as the number of times it uses
+ * each weight of the family, in one array of ints, rather than as a
+ * collection of weight objects; {@link #getSolution(int)} builds the
+ * collection when it is wanted. Results are indexed in the order of the
+ * targets given.</p>
+ *
+ * @author Bennett Alex Myers
+ * @version 11/28/2016
+ */
+public class WeightSolutions {
+
+    /** The weights of the family in ascending order of value. */
+    private final Weight[] weights;
+    /** The target totals, in the order given. */
+    private final int[] targets;
+    /** The number of weights in the solution for each target. */
+    private final int[] counts;
+    /** Uses of each weight, weights.length entries per target. */
+    private final int[] multiplicities;
+    /** Index of each weight value in the weights; built on first use. */
+    private HashMap<Integer, Integer> indices;
+
+    /**
+     * Create an empty set of solutions to be filled in by a balance weight
+     * system.
+     *
+     * @param weights the weights of the family in ascending order of value
+     * @param targets the target totals
+     * @throws IllegalArgumentException if there are too many targets and
+     *         weights to store the multiplicities in one array
+     */
+    WeightSolutions(final Weight[] weights, final int[] targets)
+            throws IllegalArgumentException {
+        int size;
+        try {
+            size = Math.multiplyExact(targets.length, weights.length);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Too many targets.", ex);
+        }
+        this.weights = weights.clone();
+        this.targets = targets.clone();
+        this.counts = new int[targets.length];
+        this.multiplicities = new int[size];
+    }
+
+    /**
+     * Record one use of a weight in the solution for a target.
+     *
+     * @param index the index of the target
+     * @param weight the index of the weight, in ascending order of value
+     */
+    void add(final int index, final int weight) {
+        this.multiplicities[index * this.weights.length + weight]++;
+        this.counts[index]++;
+    }
+
+    /**
+     * Record the weights of a solution for a target.
+     *
+     * @param index the index of the target
+     * @param solution the weights of the solution, each in the family
+     */
+    void addAll(final int index, final Collection<Weight> solution) {
+        for (Weight w : solution) {
+            add(index, indexOf(w));
+        }
+    }
+
+    /**
+     * Find the index of a weight in the family, building the lookup from
+     * weight values on first use.
+     *
+     * @param weight a weight
+     * @return the index of the weight, in ascending order of value; null
+     *         if it is not in the family
+     */
+    private Integer indexOf(final Weight weight) {
+        if (this.indices == null) {
+            this.indices = new HashMap<>();
+            for (int k = 0; k < this.weights.length; k++) {
+                this.indices.put(this.weights[k].getValue(), k);
+            }
+        }
+        return this.indices.get(weight.getValue());
+    }
+
+    /**
+     * Return the number of targets.
+     *
+     * @return the number of targets solved
+     */
+    public int size() {
+        return this.targets.length;
+    }
+
+    /**
+     * Return a target total.
+     *
+     * @param index the index of the target
+     * @return the target total
+     */
+    public int getTarget(final int index) {
+        return this.targets[index];
+    }
+
+    /**
+     * Return the number of weights in the solution for a target.
+     *
+     * @param index the index of the target
+     * @return the size of the minimum solution
+     */
+    public int getCount(final int index) {
+        return this.counts[index];
+    }
+
+    /**
+     * Return the number of times the solution for a target uses a weight.
+     *
+     * @param index the index of the target
+     * @param weight a weight of the family
+     * @return the number of times the weight is used; 0 if it is not in
+     *         the family
+     */
+    public int getMultiplicity(final int index, final Weight weight) {
+        if (index < 0 || index >= this.targets.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        Integer k = indexOf(weight);
+        if (k == null) {
+            return 0;
+        }
+        return this.multiplicities[index * this.weights.length + k];
+    }
+
+    /**
+     * Return the solution for a target.
+     *
+     * @param index the index of the target
+     * @return the weights of the solution in ascending order
+     */
+    public Collection<Weight> getSolution(final int index) {
+        ArrayList<Weight> solution = new ArrayList<>(this.counts[index]);
+        for (int k = 0; k < this.weights.length; k++) {
+            int uses = this.multiplicities[index * this.weights.length + k];
+            for (int i = 0; i < uses; i++) {
+                solution.add(this.weights[k]);
+            }
+        }
+        return solution;
+    }
+}
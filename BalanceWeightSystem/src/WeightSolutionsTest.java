@@ -0,0 +1,88 @@
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+
+/**
+ * Tests for WeightSolutions.
+ *
+ * @author Bennett Alex Myers
+ * @version 11/28/2016
+ */
+public class WeightSolutionsTest {
+
+    /** Unit Weight. */
+    private static final Weight WEIGHT_1 = new Weight(1);
+    /** 2-Weight. */
+    private static final Weight WEIGHT_2 = new Weight(2);
+    /** 5-Weight. */
+    private static final Weight WEIGHT_5 = new Weight(5);
+
+    /** Solutions used for testing. */
+    private WeightSolutions solutions;
+
+    /**
+     * Initialize test fixtures: solutions for 9 = 2 + 2 + 5 and 1 = 1.
+     */
+    @Before
+    public void setUp() {
+        this.solutions = new WeightSolutions(
+                new Weight[] {WEIGHT_1, WEIGHT_2, WEIGHT_5},
+                new int[] {9, 1});
+        this.solutions.addAll(0, Arrays.asList(WEIGHT_5, WEIGHT_2));
+        this.solutions.add(0, 1);
+        this.solutions.add(1, 0);
+    }
+
+    /**
+     * Checks the targets and counts.
+     */
+    @Test
+    public void countTest() {
+        assertEquals(2, this.solutions.size());
+        assertEquals(9, this.solutions.getTarget(0));
+        assertEquals(3, this.solutions.getCount(0));
+        assertEquals(1, this.solutions.getCount(1));
+    }
+
+    /**
+     * Checks the uses of each weight.
+     */
+    @Test
+    public void multiplicityTest() {
+        assertEquals(0, this.solutions.getMultiplicity(0, WEIGHT_1));
+        assertEquals(2, this.solutions.getMultiplicity(0, WEIGHT_2));
+        assertEquals(1, this.solutions.getMultiplicity(0, WEIGHT_5));
+        assertEquals(0, this.solutions.getMultiplicity(0, new Weight(7)));
+    }
+
+    /**
+     * Checks that solutions are rebuilt in ascending order.
+     */
+    @Test
+    public void getSolutionTest() {
+        assertEquals(Arrays.asList(WEIGHT_2, WEIGHT_2, WEIGHT_5),
+                this.solutions.getSolution(0));
+        assertEquals(Arrays.asList(WEIGHT_1), this.solutions.getSolution(1));
+    }
+
+    /**
+     * Verifies exception for an index past the last target.
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void multiplicityIndexException() {
+        this.solutions.getMultiplicity(2, WEIGHT_1);
+    }
+
+    /**
+     * Verifies exception for a batch whose multiplicities do not fit in
+     * one array.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void tooManyTargetsException() {
+        final int size = 1 << Character.SIZE;
+        Weight[] weights = new Weight[size];
+        Arrays.fill(weights, WEIGHT_1);
+        new WeightSolutions(weights, new int[size]);
+    }
+}
@@ -0,0 +1,78 @@
+package huffman;
+
+import java.util.Random;
+
+/**
+ * Generates reproducible benchmark inputs over several alphabets. Each
+ * alphabet stresses the code differently: English-like text gives a
+ * typical mix of code lengths, a skewed distribution gives a few very
+ * short codes and a long tail of long ones, and a uniform distribution
+ * over all byte values gives codes of nearly equal length.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public final class BenchmarkInputs {
+
+    /** Seed for every generator, so runs see the same input. */
+    public static final long SEED = 0x5EED;
+
+    /** Words from which English-like text is assembled. */
+    private static final String[] WORDS = {
+        "the", "of", "and", "to", "in", "a", "is", "that", "for", "it",
+        "as", "was", "with", "be", "by", "on", "not", "he", "this", "are",
+        "or", "his", "from", "at", "which", "but", "have", "an", "had",
+        "they", "you", "were", "their", "one", "all", "we", "can", "her",
+        "has", "there", "been", "if", "more", "when", "will", "would",
+        "who", "so", "no", "Huffman", "code", "tree", "bits", "symbol",
+    };
+
+    /** Number of distinct symbols in the skewed alphabet. */
+    private static final int SKEWED_SYMBOLS = 64;
+
+    /** Number of distinct symbols in the uniform alphabet. */
+    private static final int UNIFORM_SYMBOLS = 256;
+
+    /** Not instantiable. */
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Generates a string of the given length over the named alphabet.
+     * @param alphabet one of <code>text</code>, <code>skewed</code> or
+     *        <code>uniform</code>
+     * @param size the number of chars to generate
+     * @return the generated string
+     * @throws IllegalArgumentException if the alphabet is not known
+     */
+    public static String generate(final String alphabet, final int size)
+            throws IllegalArgumentException {
+        Random random = new Random(SEED);
+        StringBuilder sb = new StringBuilder(size);
+        switch (alphabet) {
+            case "text":
+                while (sb.length() < size) {
+                    sb.append(WORDS[random.nextInt(WORDS.length)]);
+                    sb.append(random.nextInt(12) == 0 ? ".\n" : " ");
+                }
+                sb.setLength(size);
+                break;
+            case "skewed":
+                for (int i = 0; i < size; i++) {
+                    int symbol = Long.numberOfTrailingZeros(
+                            random.nextLong() | (1L << (SKEWED_SYMBOLS - 1)));
+                    sb.append((char) ('!' + symbol));
+                }
+                break;
+            case "uniform":
+                for (int i = 0; i < size; i++) {
+                    sb.append((char) random.nextInt(UNIFORM_SYMBOLS));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown alphabet: "
+                        + alphabet);
+        }
+        return sb.toString();
+    }
+}
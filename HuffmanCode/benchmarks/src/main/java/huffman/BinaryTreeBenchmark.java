@@ -0,0 +1,130 @@
+package huffman;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link BinaryTree} traversals and structural queries on
+ * balanced trees and on trees degenerated into a chain, the worst case for
+ * recursive algorithms.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xss64m"})
+public class BinaryTreeBenchmark {
+
+    /** The shape of the tree: <code>balanced</code> or <code>skewed</code>. */
+    @Param({"balanced", "skewed"})
+    private String shape;
+
+    /** The number of nodes in the tree. */
+    @Param({"1023", "65535"})
+    private int nodes;
+
+    /** The tree under test. */
+    private BinaryTree<Integer> tree;
+
+    /**
+     * Builds the tree.
+     */
+    @Setup
+    public void setUp() {
+        if ("skewed".equals(this.shape)) {
+            BinaryTree<Integer> t = new BinaryTree<>(0);
+            for (int i = 1; i < this.nodes; i++) {
+                t = new BinaryTree<>(i, t, null);
+            }
+            this.tree = t;
+        } else {
+            this.tree = balanced(0, this.nodes);
+        }
+    }
+
+    /**
+     * Builds a balanced tree holding the values in a range.
+     * @param from the smallest value, inclusive
+     * @param to the largest value, exclusive
+     * @return the tree, or <code>null</code> if the range is empty
+     */
+    private static BinaryTree<Integer> balanced(final int from,
+                                                final int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        return new BinaryTree<>(mid, balanced(from, mid),
+                balanced(mid + 1, to));
+    }
+
+    /**
+     * Lists the values in preorder.
+     * @return the values
+     */
+    @Benchmark
+    public List<Integer> preorder() {
+        return this.tree.preorderValues();
+    }
+
+    /**
+     * Lists the values in inorder.
+     * @return the values
+     */
+    @Benchmark
+    public List<Integer> inorder() {
+        return this.tree.inorderValues();
+    }
+
+    /**
+     * Lists the values in postorder.
+     * @return the values
+     */
+    @Benchmark
+    public List<Integer> postorder() {
+        return this.tree.postorderValues();
+    }
+
+    /**
+     * Counts the nodes.
+     * @return the number of nodes
+     */
+    @Benchmark
+    public int numberOfNodes() {
+        return this.tree.numberOfNodes();
+    }
+
+    /**
+     * Counts the leaves.
+     * @return the number of leaves
+     */
+    @Benchmark
+    public int numberOfLeaves() {
+        return this.tree.numberOfLeaves();
+    }
+
+    /**
+     * Measures the height.
+     * @return the height
+     */
+    @Benchmark
+    public int height() {
+        return this.tree.height();
+    }
+}
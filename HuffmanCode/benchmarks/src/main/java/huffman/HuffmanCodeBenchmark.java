@@ -0,0 +1,86 @@
+package huffman;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building a {@link HuffmanCode} from text and encoding and
+ * decoding with it, across input sizes from 1 KB to 100 MB and across the
+ * alphabets of {@link BenchmarkInputs}.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xss64m"})
+public class HuffmanCodeBenchmark {
+
+    /** The alphabet of the input. */
+    @Param({"text", "skewed", "uniform"})
+    private String alphabet;
+
+    /** The number of chars in the input. */
+    @Param({"1024", "1048576", "104857600"})
+    private int size;
+
+    /** The input text. */
+    private String input;
+    /** The code built from the input. */
+    private HuffmanCode code;
+    /** The input encoded with the code. */
+    private StringOfBits encoded;
+
+    /**
+     * Generates the input and prepares the code and encoded bits.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.input = BenchmarkInputs.generate(this.alphabet, this.size);
+        this.code = new HuffmanCode(this.input);
+        this.encoded = this.code.encode(this.input);
+    }
+
+    /**
+     * Builds a code from the input: counting, tree construction and code
+     * assignment.
+     * @return the code built
+     */
+    @Benchmark
+    public HuffmanCode build() {
+        return new HuffmanCode(this.input);
+    }
+
+    /**
+     * Encodes the input.
+     * @return the encoded bits
+     */
+    @Benchmark
+    public StringOfBits encode() {
+        return this.code.encode(this.input);
+    }
+
+    /**
+     * Decodes the encoded input.
+     * @return the decoded text
+     */
+    @Benchmark
+    public String decode() {
+        return this.code.decode(this.encoded);
+    }
+}
@@ -0,0 +1,88 @@
+package huffman;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the ways of appending to a {@link StringOfBits}: one bit at a
+ * time, a run of bits from a long, and another bit string.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class StringOfBitsBenchmark {
+
+    /** Length in bits of each appended run. */
+    private static final int RUN_LENGTH = 13;
+
+    /** The number of bits in the result. */
+    @Param({"8192", "8388608", "838860800"})
+    private int bits;
+
+    /** A bit string appended repeatedly by {@link #appendBitString()}. */
+    private StringOfBits run;
+
+    /**
+     * Prepares the run appended by {@link #appendBitString()}.
+     */
+    @Setup
+    public void setUp() {
+        this.run = new StringOfBits().append(0x1A5BL, RUN_LENGTH);
+    }
+
+    /**
+     * Appends single bits.
+     * @return the bit string built
+     */
+    @Benchmark
+    public StringOfBits appendBit() {
+        StringOfBits sb = new StringOfBits();
+        for (int i = 0; i < this.bits; i++) {
+            sb.append((i & 3) == 0);
+        }
+        return sb;
+    }
+
+    /**
+     * Appends runs of bits held in a long, as encoding does.
+     * @return the bit string built
+     */
+    @Benchmark
+    public StringOfBits appendLong() {
+        StringOfBits sb = new StringOfBits();
+        for (int i = 0; i < this.bits; i += RUN_LENGTH) {
+            sb.append(i, RUN_LENGTH);
+        }
+        return sb;
+    }
+
+    /**
+     * Appends other bit strings.
+     * @return the bit string built
+     */
+    @Benchmark
+    public StringOfBits appendBitString() {
+        StringOfBits sb = new StringOfBits();
+        for (int i = 0; i < this.bits; i += RUN_LENGTH) {
+            sb.append(this.run);
+        }
+        return sb;
+    }
+}
@@ -0,0 +1,485 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An adaptive Huffman code, which codes symbols in a single pass without
+ * knowing their frequencies in advance. The code tree starts with a single
+ * leaf for symbols not yet transmitted (the NYT leaf) and is updated after
+ * every symbol with the FGK algorithm, so an encoder and a decoder that
+ * process the same symbols always hold the same tree and no code table
+ * needs to be sent.
+ * <p>
+ * A symbol already in the tree is coded by the path from the root to its
+ * leaf, 0 for a left branch and 1 for a right branch. The first occurrence
+ * of a symbol is coded by the path to the NYT leaf followed by the symbol
+ * itself in <code>symbolBits</code> bits, most significant bit first; the
+ * NYT leaf then splits into a new NYT leaf on the left and a leaf for the
+ * symbol on the right.
+ * </p>
+ * <p>
+ * The tree is built from {@link HuffmanTree} nodes whose integer weights
+ * count the symbols coded below them. The nodes are also numbered in a
+ * list, root first, in which weights never increase and siblings are
+ * adjacent (the sibling property), which is what makes the tree a Huffman
+ * tree for the counts so far. To update, the leaf of the symbol coded and
+ * then each of its ancestors is swapped with the first node of equal
+ * weight in the list, unless that is its parent, and its weight is
+ * incremented. Since the nodes of each weight form a block in the list,
+ * each node records the index of its block and the number of the first
+ * node of each block is kept in an array, so each step of an update takes
+ * constant time.
+ * </p>
+ * <p>
+ * An instance holds the state of one direction of one stream; use separate
+ * instances to encode and to decode.
+ * </p>
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class AdaptiveHuffmanCode {
+
+    /** Largest number of bits in a symbol. */
+    public static final int MAX_SYMBOL_BITS = Character.SIZE;
+
+    /** Result of decodeBit when more bits are needed for a symbol. */
+    public static final int NEED_MORE_BITS = -1;
+
+    /** Number of bits in which a new symbol is sent. */
+    private final int symbolBits;
+    /** Leaf of each symbol that has been coded; null otherwise. */
+    private final Node[] leaves;
+    /** Nodes in order of number, root first; weights never increase. */
+    private Node[] order;
+    /** Number of nodes in the tree. */
+    private int count;
+    /** Number of the first node of each block, indexed by block. */
+    private int[] leaders;
+    /** Indices of blocks no longer in use. */
+    private int[] freeBlocks;
+    /** Number of indices in freeBlocks. */
+    private int freeCount;
+    /** Number of block indices ever used. */
+    private int blockCount;
+    /** The leaf for symbols not yet transmitted. */
+    private Node nyt;
+    /** Bits of the current path, used when encoding. */
+    private boolean[] path;
+    /** Node reached so far by the bits of the symbol being decoded. */
+    private Node cursor;
+    /** Bits of a new symbol still to be decoded; 0 if not in one. */
+    private int rawRemaining;
+    /** Bits of a new symbol decoded so far. */
+    private int rawSymbol;
+    /** Whether bits of an incomplete symbol have been decoded. */
+    private boolean partial;
+
+    /**
+     * Creates an adaptive code for 16-bit symbols.
+     */
+    public AdaptiveHuffmanCode() {
+        this(MAX_SYMBOL_BITS);
+    }
+
+    /**
+     * Creates an adaptive code for symbols of a given number of bits.
+     * @param symbolBits the number of bits in a symbol, 1 to 16
+     * @throws IllegalArgumentException if symbolBits is out of range
+     */
+    public AdaptiveHuffmanCode(final int symbolBits)
+            throws IllegalArgumentException {
+        if (symbolBits < 1 || symbolBits > MAX_SYMBOL_BITS) {
+            throw new IllegalArgumentException("Symbol size out of range.");
+        }
+        this.symbolBits = symbolBits;
+        this.leaves = new Node[1 << symbolBits];
+        this.order = new Node[1];
+        this.nyt = new Node(null, 0);
+        this.order[0] = this.nyt;
+        this.count = 1;
+        this.leaders = new int[1];
+        this.freeBlocks = new int[1];
+        this.blockCount = 1;
+        this.path = new boolean[Byte.SIZE];
+        startSymbol();
+    }
+
+    /**
+     * Returns the number of bits in which a new symbol is sent.
+     * @return the symbol size in bits
+     */
+    public int symbolBits() {
+        return this.symbolBits;
+    }
+
+    /**
+     * Returns the current code tree. The tree changes as symbols are coded
+     * and must not be modified.
+     * @return the root of the code tree
+     */
+    public HuffmanTree getTree() {
+        return this.order[0];
+    }
+
+    /**
+     * Encodes a symbol, passing each bit of its code to the sink, and
+     * updates the tree.
+     * @param symbol the symbol to encode
+     * @param sink the consumer of the bits, each 0 or 1
+     * @throws IllegalArgumentException if the symbol is out of range
+     */
+    public void encode(final int symbol, final IntConsumer sink)
+            throws IllegalArgumentException {
+        if (symbol < 0 || symbol >= this.leaves.length) {
+            throw new IllegalArgumentException("Symbol out of range: "
+                    + symbol);
+        }
+        Node leaf = this.leaves[symbol];
+        if (leaf == null) {
+            emitPath(this.nyt, sink);
+            for (int i = this.symbolBits - 1; i >= 0; i--) {
+                sink.accept((symbol >>> i) & 1);
+            }
+        } else {
+            emitPath(leaf, sink);
+        }
+        update(symbol);
+    }
+
+    /**
+     * Encodes a symbol, appending its code to a bit string, and updates
+     * the tree.
+     * @param symbol the symbol to encode
+     * @param bits the bit string to which the code is appended
+     * @throws IllegalArgumentException if the symbol is out of range
+     */
+    public void encode(final int symbol, final StringOfBits bits)
+            throws IllegalArgumentException {
+        encode(symbol, bit -> bits.append(bit));
+    }
+
+    /**
+     * Encodes each char of the given text, updating the tree as it goes.
+     * @param text the text to encode
+     * @return the encoded bits
+     * @throws IllegalArgumentException if a char is out of range
+     */
+    public StringOfBits encode(final CharSequence text)
+            throws IllegalArgumentException {
+        StringOfBits bits = new StringOfBits();
+        IntConsumer sink = bit -> bits.append(bit);
+        for (int i = 0; i < text.length(); i++) {
+            encode(text.charAt(i), sink);
+        }
+        return bits;
+    }
+
+    /**
+     * Decodes one bit. When the bit completes a symbol, the tree is updated
+     * and the symbol is returned.
+     * @param bit the next encoded bit, 0 or 1
+     * @return the decoded symbol, or NEED_MORE_BITS if the symbol is not
+     *         yet complete
+     * @throws IllegalArgumentException if the bits do not form a valid code
+     */
+    public int decodeBit(final int bit) throws IllegalArgumentException {
+        this.partial = true;
+        if (this.rawRemaining > 0) {
+            this.rawSymbol = (this.rawSymbol << 1) | (bit & 1);
+            if (--this.rawRemaining > 0) {
+                return NEED_MORE_BITS;
+            }
+            int symbol = this.rawSymbol;
+            if (this.leaves[symbol] != null) {
+                throw new IllegalArgumentException("Invalid code.");
+            }
+            update(symbol);
+            startSymbol();
+            return symbol;
+        }
+        if (bit == 0) {
+            this.cursor = (Node) this.cursor.getLeftChild();
+        } else {
+            this.cursor = (Node) this.cursor.getRightChild();
+        }
+        if (this.cursor == this.nyt) {
+            this.rawRemaining = this.symbolBits;
+            this.rawSymbol = 0;
+            return NEED_MORE_BITS;
+        }
+        if (!this.cursor.isLeaf()) {
+            return NEED_MORE_BITS;
+        }
+        int symbol = this.cursor.getSymbol();
+        update(symbol);
+        startSymbol();
+        return symbol;
+    }
+
+    /**
+     * Decodes all bits of the given bit string, passing each decoded symbol
+     * to the sink. A trailing incomplete code is kept and completed by the
+     * bits of the next call.
+     * @param bits the encoded bits
+     * @param sink the consumer of decoded symbols
+     * @throws IllegalArgumentException if the bits do not form a valid code
+     */
+    public void decode(final StringOfBits bits, final IntConsumer sink)
+            throws IllegalArgumentException {
+        for (int i = 0; i < bits.length(); i++) {
+            int symbol = decodeBit(bits.intAt(i));
+            if (symbol != NEED_MORE_BITS) {
+                sink.accept(symbol);
+            }
+        }
+    }
+
+    /**
+     * Decodes all bits of the given bit string as chars.
+     * @param bits the encoded bits
+     * @return the decoded text
+     * @throws IllegalArgumentException if the bits do not form a valid code
+     */
+    public String decode(final StringOfBits bits)
+            throws IllegalArgumentException {
+        StringBuilder text = new StringBuilder();
+        decode(bits, symbol -> text.append((char) symbol));
+        return text.toString();
+    }
+
+    /**
+     * Indicates whether decoding is between symbols, so that the input may
+     * end here.
+     * @return <code>true</code> if no bits of an incomplete symbol have
+     * been decoded; <code>false</code> otherwise
+     */
+    public boolean isAtSymbolBoundary() {
+        return !this.partial;
+    }
+
+    /**
+     * Resets the decoding state to the start of a symbol. While the tree
+     * is the NYT leaf alone, a symbol consists of its raw bits only.
+     */
+    private void startSymbol() {
+        this.cursor = this.order[0];
+        this.partial = false;
+        this.rawSymbol = 0;
+        this.rawRemaining = 0;
+        if (this.cursor == this.nyt) {
+            this.rawRemaining = this.symbolBits;
+        }
+    }
+
+    /**
+     * Passes the bits of the path from the root to a node to the sink.
+     * @param node the node
+     * @param sink the consumer of the bits
+     */
+    private void emitPath(final Node node, final IntConsumer sink) {
+        int depth = 0;
+        for (Node n = node; n.getParent() != null; n = (Node) n.getParent()) {
+            if (depth == this.path.length) {
+                this.path = Arrays.copyOf(this.path, 2 * depth);
+            }
+            this.path[depth++] = n.getParent().getRightChild() == n;
+        }
+        while (depth > 0) {
+            if (this.path[--depth]) {
+                sink.accept(1);
+            } else {
+                sink.accept(0);
+            }
+        }
+    }
+
+    /**
+     * Counts an occurrence of a symbol, adding a leaf for it if it is new,
+     * and restores the sibling property.
+     * @param symbol the symbol coded
+     */
+    private void update(final int symbol) {
+        Node node = this.leaves[symbol];
+        if (node == null) {
+            node = split(symbol);
+        }
+        Node child = null;
+        while (node != null) {
+            long weight = node.getWeight();
+            Node leader = this.order[this.leaders[node.block]];
+            if (leader != node && leader != node.getParent()) {
+                swap(node, leader);
+            }
+            node.setWeight(weight + 1);
+            moveToNextBlock(node, weight, child);
+            child = node;
+            node = (Node) node.getParent();
+        }
+    }
+
+    /**
+     * Splits the NYT leaf into a new NYT leaf and a leaf for a new symbol,
+     * both of weight 0, numbered after all other nodes.
+     * @param symbol the new symbol
+     * @return the leaf of the new symbol
+     */
+    private Node split(final int symbol) {
+        Node leaf = new Node((char) symbol, this.count);
+        Node newNyt = new Node(null, this.count + 1);
+        leaf.block = this.nyt.block;
+        newNyt.block = this.nyt.block;
+        if (this.count + 2 > this.order.length) {
+            this.order = Arrays.copyOf(this.order,
+                    Math.max(this.count + 2, 2 * this.order.length));
+        }
+        this.order[this.count++] = leaf;
+        this.order[this.count++] = newNyt;
+        this.nyt.setLeftChild(newNyt);
+        this.nyt.setRightChild(leaf);
+        this.nyt = newNyt;
+        this.leaves[symbol] = leaf;
+        return leaf;
+    }
+
+    /**
+     * Moves a node whose weight was incremented to the block of its new
+     * weight. That block, if there is one, is just before the node's old
+     * block, or holds the child incremented before it when the node is
+     * the parent of the NYT leaf. If the node led its old block, the block
+     * now starts after it, passing over such a child, or is freed if no
+     * node of the old weight remains. The node leads its new block unless
+     * a node before it already does.
+     * @param node the node whose weight was incremented
+     * @param weight the old weight of the node
+     * @param child the child of the node incremented before it; null if
+     *              the node is a leaf
+     */
+    private void moveToNextBlock(final Node node, final long weight,
+                                 final Node child) {
+        int number = node.number;
+        int old = node.block;
+        int head = this.leaders[old];
+        int target = -1;
+        if (head > 0 && this.order[head - 1].getWeight() == weight + 1) {
+            target = this.order[head - 1].block;
+        } else if (child != null && child.getWeight() == weight + 1) {
+            target = child.block;
+        }
+        if (head == number) {
+            int next = number + 1;
+            if (next < this.count && this.order[next] == child
+                    && child.getWeight() > weight) {
+                next++;
+            }
+            if (next < this.count && this.order[next].getWeight() == weight) {
+                this.leaders[old] = next;
+            } else {
+                freeBlock(old);
+            }
+        }
+        if (target < 0) {
+            target = newBlock(number);
+        } else if (this.leaders[target] > number) {
+            this.leaders[target] = number;
+        }
+        node.block = target;
+    }
+
+    /**
+     * Allocates a block, reusing a freed index if there is one.
+     * @param leader the number of the first node of the block
+     * @return the index of the block
+     */
+    private int newBlock(final int leader) {
+        int block;
+        if (this.freeCount > 0) {
+            block = this.freeBlocks[--this.freeCount];
+        } else {
+            if (this.blockCount == this.leaders.length) {
+                this.leaders = Arrays.copyOf(this.leaders,
+                        2 * this.blockCount);
+            }
+            block = this.blockCount++;
+        }
+        this.leaders[block] = leader;
+        return block;
+    }
+
+    /**
+     * Frees a block no node belongs to.
+     * @param block the index of the block
+     */
+    private void freeBlock(final int block) {
+        if (this.freeCount == this.freeBlocks.length) {
+            this.freeBlocks = Arrays.copyOf(this.freeBlocks,
+                    2 * this.freeCount);
+        }
+        this.freeBlocks[this.freeCount++] = block;
+    }
+
+    /**
+     * Exchanges the positions in the tree and the numbers of two nodes,
+     * neither of which is an ancestor of the other.
+     * @param a the first node
+     * @param b the second node
+     */
+    private void swap(final Node a, final Node b) {
+        HuffmanTree parentA = a.getParent();
+        HuffmanTree parentB = b.getParent();
+        boolean leftA = parentA.getLeftChild() == a;
+        boolean leftB = parentB.getLeftChild() == b;
+        if (parentA == parentB) {
+            parentA.setLeftChild(null);
+            parentA.setRightChild(leftA ? a : b);
+            parentA.setLeftChild(leftA ? b : a);
+        } else {
+            setChild(parentA, leftA, b);
+            setChild(parentB, leftB, a);
+        }
+        int number = a.number;
+        a.number = b.number;
+        b.number = number;
+        this.order[a.number] = a;
+        this.order[b.number] = b;
+    }
+
+    /**
+     * Replaces a child of a tree.
+     * @param parent the tree
+     * @param left whether to replace the left child rather than the right
+     * @param child the new child
+     */
+    private static void setChild(final HuffmanTree parent,
+                                 final boolean left,
+                                 final HuffmanTree child) {
+        if (left) {
+            parent.setLeftChild(child);
+        } else {
+            parent.setRightChild(child);
+        }
+    }
+
+    /**
+     * A node of the adaptive code tree, which knows its number.
+     */
+    private static final class Node extends HuffmanTree {
+
+        /** Used in serialization. */
+        private static final long serialVersionUID = 2016090422L;
+
+        /** Position of this node in the list of nodes. */
+        private int number;
+        /** Index of the block of nodes of this node's weight. */
+        private int block;
+
+        /**
+         * Creates a node of weight 0.
+         * @param symbol the symbol of a leaf; null for the NYT leaf
+         * @param number the position of the node in the list of nodes
+         */
+        Node(final Character symbol, final int number) {
+            super(symbol, 0L);
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for AdaptiveHuffmanCode.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class AdaptiveHuffmanCodeTest {
+
+    /** Default string seed. */
+    private static final String SEED = "roadrunner";
+
+    /** Length of the large random input. */
+    private static final int LARGE_LENGTH = 20000;
+
+    /** Milliseconds allowed to code every 16-bit symbol twice. */
+    private static final long DISTINCT_TIMEOUT = 10000;
+
+    /**
+     * Generates text whose chars are far from equally likely.
+     * @param length the length of the text
+     * @return the text
+     */
+    private static String skewedText(final int length) {
+        Random random = new Random(length);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + (int) Math.abs(
+                    random.nextGaussian() * 4)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Checks that every internal node weighs as much as its children.
+     * @param tree the tree to check
+     */
+    private static void checkWeights(final HuffmanTree tree) {
+        if (tree.isLeaf()) {
+            return;
+        }
+        assertEquals(tree.getWeight(), tree.getLeftChild().getWeight()
+                + tree.getRightChild().getWeight());
+        checkWeights(tree.getLeftChild());
+        checkWeights(tree.getRightChild());
+    }
+
+    /**
+     * Verifies the bits sent for new and repeated symbols.
+     */
+    @Test
+    public void encodedBitsTest() {
+        AdaptiveHuffmanCode code = new AdaptiveHuffmanCode(Byte.SIZE);
+        assertEquals("01100001", code.encode("a").toString());
+        assertEquals("1", code.encode("a").toString());
+        assertEquals("001100010", code.encode("b").toString());
+        assertEquals(3L, code.getTree().getWeight());
+    }
+
+    /**
+     * Tests round trips with separate encoder and decoder.
+     */
+    @Test
+    public void roundTripTest() {
+        String[] words = {"", "a", "unordered", "rodeo", SEED,
+            skewedText(LARGE_LENGTH)};
+        for (String word : words) {
+            StringOfBits bits = new AdaptiveHuffmanCode().encode(word);
+            assertEquals(word, new AdaptiveHuffmanCode().decode(bits));
+        }
+    }
+
+    /**
+     * Verifies the encoder and decoder keep the same tree across calls,
+     * and a code split between calls is completed.
+     */
+    @Test
+    public void incrementalTest() {
+        AdaptiveHuffmanCode encoder = new AdaptiveHuffmanCode();
+        AdaptiveHuffmanCode decoder = new AdaptiveHuffmanCode();
+        StringBuilder decoded = new StringBuilder();
+        for (String word : new String[] {SEED, "rodeo", "neuron"}) {
+            StringOfBits bits = encoder.encode(word);
+            StringOfBits head = new StringOfBits();
+            StringOfBits tail = new StringOfBits();
+            for (int i = 0; i < bits.length(); i++) {
+                if (i < bits.length() - 1) {
+                    head.append(bits.charAt(i));
+                } else {
+                    tail.append(bits.charAt(i));
+                }
+            }
+            decoded.append(decoder.decode(head));
+            assertFalse(decoder.isAtSymbolBoundary());
+            decoded.append(decoder.decode(tail));
+            assertTrue(decoder.isAtSymbolBoundary());
+            assertTrue(encoder.getTree().equals(decoder.getTree()));
+        }
+        assertEquals(SEED + "rodeo" + "neuron", decoded.toString());
+    }
+
+    /**
+     * Verifies the tree stays weighted by the symbol counts and that the
+     * adaptive code is within the FGK bound of the static Huffman code.
+     */
+    @Test
+    public void weightsTest() {
+        String text = skewedText(LARGE_LENGTH);
+        AdaptiveHuffmanCode code = new AdaptiveHuffmanCode();
+        StringOfBits bits = code.encode(text);
+        HuffmanTree tree = code.getTree();
+        assertEquals(LARGE_LENGTH, tree.getWeight());
+        checkWeights(tree);
+        HuffmanCode fixed = new HuffmanCode(text);
+        int fixedBits = fixed.encode(text).length();
+        int distinct = fixed.getCode().size();
+        assertTrue(bits.length() <= 2 * fixedBits + LARGE_LENGTH
+                + distinct * AdaptiveHuffmanCode.MAX_SYMBOL_BITS);
+    }
+
+    /**
+     * Verifies that coding every 16-bit symbol, each new symbol adding to
+     * the block of singletons, takes time linear in the number of symbols
+     * and round trips.
+     */
+    @Test (timeout = DISTINCT_TIMEOUT)
+    public void distinctAlphabetTest() {
+        final int size = 1 << AdaptiveHuffmanCode.MAX_SYMBOL_BITS;
+        int[] symbols = new int[2 * size];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = (int) ((i * 40503L) % size);
+        }
+        AdaptiveHuffmanCode encoder = new AdaptiveHuffmanCode();
+        StringOfBits bits = new StringOfBits();
+        for (int symbol : symbols) {
+            encoder.encode(symbol, bits);
+        }
+        assertEquals(symbols.length, encoder.getTree().getWeight());
+        checkWeights(encoder.getTree());
+        AdaptiveHuffmanCode decoder = new AdaptiveHuffmanCode();
+        int[] decoded = new int[symbols.length];
+        int[] n = new int[1];
+        decoder.decode(bits, symbol -> decoded[n[0]++] = symbol);
+        assertEquals(symbols.length, n[0]);
+        assertTrue(Arrays.equals(symbols, decoded));
+    }
+
+    /**
+     * Verifies exception for a new symbol that was already sent.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void repeatedNewSymbolException() {
+        new AdaptiveHuffmanCode(Byte.SIZE).decode(
+                new StringOfBits("01100001" + "0" + "01100001"));
+    }
+
+    /**
+     * Verifies exception for a symbol that does not fit the symbol size.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void symbolOutOfRangeException() {
+        new AdaptiveHuffmanCode(Byte.SIZE).encode("\u0100");
+    }
+
+    /**
+     * Verifies exception for an invalid symbol size.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void symbolBitsException() {
+        new AdaptiveHuffmanCode(AdaptiveHuffmanCode.MAX_SYMBOL_BITS + 1);
+    }
+}
@@ -0,0 +1,203 @@
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream filter that decompresses data written by an
+ * {@link AdaptiveHuffmanOutputStream}. The decoder's
+ * {@link AdaptiveHuffmanCode} adapts to the bytes as they are decoded, in
+ * step with the encoder's, so nothing but the encoded data is needed.
+ * Encoded bytes are read through a fixed-size buffer.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class AdaptiveHuffmanInputStream extends FilterInputStream {
+
+    /** Size in bytes of the input buffer. */
+    public static final int BUFFER_SIZE = 8192;
+
+    /** Mask of the bits of a byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** Bytes kept back in the buffer until the end of input is known. */
+    private static final int LOOKAHEAD = 2;
+
+    /** The adaptive code. */
+    private final AdaptiveHuffmanCode code;
+    /** Buffer of encoded bytes read from the underlying stream. */
+    private final byte[] buffer;
+    /** Index of the next unread byte in the buffer. */
+    private int position;
+    /** Number of valid bytes in the buffer. */
+    private int limit;
+    /** Whether the underlying stream has reached its end. */
+    private boolean eof;
+    /** Bits of the current byte not yet decoded, right-aligned. */
+    private int current;
+    /** Number of bits of the current byte not yet decoded. */
+    private int available;
+    /** Whether the final data byte and trailer have been consumed. */
+    private boolean done;
+
+    /**
+     * Creates a stream that decompresses bytes with an adaptive code.
+     * @param in the underlying input stream
+     */
+    public AdaptiveHuffmanInputStream(final InputStream in) {
+        super(in);
+        this.code = new AdaptiveHuffmanCode(Byte.SIZE);
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Reads the next decoded byte.
+     * @return the next byte, or -1 at the end of the stream
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    @Override
+    public int read() throws IOException {
+        while (true) {
+            if (this.available == 0 && !nextByte()) {
+                if (!this.code.isAtSymbolBoundary()) {
+                    throw new EOFException("Truncated Huffman data.");
+                }
+                return -1;
+            }
+            int bit = (this.current >>> --this.available) & 1;
+            int symbol;
+            try {
+                symbol = this.code.decodeBit(bit);
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Corrupt Huffman data.", ex);
+            }
+            if (symbol != AdaptiveHuffmanCode.NEED_MORE_BITS) {
+                return symbol;
+            }
+        }
+    }
+
+    /**
+     * Reads decoded bytes into part of an array.
+     * @param b the array into which to read
+     * @param off the index at which to store the first byte
+     * @param len the maximum number of bytes to read
+     * @return the number of bytes read, or -1 at the end of the stream
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    @Override
+    public int read(final byte[] b, final int off, final int len)
+            throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        while (n < len) {
+            int symbol = read();
+            if (symbol < 0) {
+                break;
+            }
+            b[off + n++] = (byte) symbol;
+        }
+        if (n == 0) {
+            return -1;
+        }
+        return n;
+    }
+
+    /**
+     * Skips over decoded bytes.
+     * @param n the number of bytes to skip
+     * @return the number of bytes skipped
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    @Override
+    public long skip(final long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && read() >= 0) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * The number of bytes available without blocking is not known.
+     * @return 0
+     */
+    @Override
+    public int available() {
+        return 0;
+    }
+
+    /**
+     * Mark and reset are not supported.
+     * @return false
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Makes the next encoded byte current, leaving out the padding bits of
+     * the final data byte.
+     * @return <code>true</code> if a byte with at least one data bit was
+     * made current; <code>false</code> at the end of the data
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    private boolean nextByte() throws IOException {
+        while (!this.done) {
+            if (this.limit - this.position <= LOOKAHEAD && !this.eof) {
+                fillBuffer();
+                continue;
+            }
+            int remaining = this.limit - this.position;
+            if (remaining > LOOKAHEAD) {
+                this.current = this.buffer[this.position++] & BYTE_MASK;
+                this.available = Byte.SIZE;
+                return true;
+            } else if (remaining == LOOKAHEAD) {
+                int last = this.buffer[this.position] & BYTE_MASK;
+                int padding = this.buffer[this.position + 1];
+                if (padding < 0 || padding >= Byte.SIZE) {
+                    throw new IOException("Corrupt Huffman trailer.");
+                }
+                this.position += LOOKAHEAD;
+                this.done = true;
+                this.current = last >>> padding;
+                this.available = Byte.SIZE - padding;
+                return true;
+            } else if (remaining == 1) {
+                if (this.buffer[this.position] != 0) {
+                    throw new IOException("Corrupt Huffman trailer.");
+                }
+                this.position++;
+                this.done = true;
+            } else {
+                throw new EOFException("Missing Huffman trailer.");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves unread bytes to the front of the buffer and reads more from the
+     * underlying stream.
+     * @throws IOException if an IO error occurs
+     */
+    private void fillBuffer() throws IOException {
+        int remaining = this.limit - this.position;
+        System.arraycopy(this.buffer, this.position, this.buffer, 0,
+                remaining);
+        this.position = 0;
+        this.limit = remaining;
+        int n = this.in.read(this.buffer, this.limit,
+                this.buffer.length - this.limit);
+        if (n < 0) {
+            this.eof = true;
+        } else {
+            this.limit += n;
+        }
+    }
+}
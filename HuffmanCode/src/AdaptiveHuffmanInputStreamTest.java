@@ -0,0 +1,127 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for AdaptiveHuffmanInputStream.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class AdaptiveHuffmanInputStreamTest {
+
+    /** Length of the large round-trip input; spans several buffers. */
+    private static final int LARGE_LENGTH = 100000;
+
+    /**
+     * Compresses bytes through an AdaptiveHuffmanOutputStream.
+     * @param data the bytes to compress
+     * @return the compressed bytes
+     * @throws IOException if unexpected IO error
+     */
+    private static byte[] encode(final byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AdaptiveHuffmanOutputStream out =
+                new AdaptiveHuffmanOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses bytes through an AdaptiveHuffmanInputStream.
+     * @param encoded the compressed bytes
+     * @return the decompressed bytes
+     * @throws IOException if unexpected IO error
+     */
+    private static byte[] decode(final byte[] encoded) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AdaptiveHuffmanInputStream in = new AdaptiveHuffmanInputStream(
+                new ByteArrayInputStream(encoded))) {
+            int b;
+            while ((b = in.read()) >= 0) {
+                bytes.write(b);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Tests round trips of short strings.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void roundTripTest() throws IOException {
+        String[] words = {"", "a", "unordered", "rodeo", "roadrunner"};
+        for (String word : words) {
+            byte[] data = word.getBytes("US-ASCII");
+            assertTrue(Arrays.equals(decode(encode(data)), data));
+        }
+    }
+
+    /**
+     * Tests a round trip of all byte values over several buffers, and that
+     * skewed data is compressed.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void largeByteRoundTripTest() throws IOException {
+        Random random = new Random(LARGE_LENGTH);
+        byte[] data = new byte[LARGE_LENGTH];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (random.nextGaussian() * 5);
+        }
+        for (int i = 0; i < 256; i++) {
+            data[i] = (byte) i;
+        }
+        byte[] encoded = encode(data);
+        assertTrue(encoded.length < LARGE_LENGTH * 3 / 4);
+        byte[] decoded = new byte[LARGE_LENGTH];
+        try (AdaptiveHuffmanInputStream in = new AdaptiveHuffmanInputStream(
+                new ByteArrayInputStream(encoded))) {
+            int n = 0;
+            int read;
+            while ((read = in.read(decoded, n, decoded.length - n)) > 0) {
+                n += read;
+            }
+            assertEquals(n, LARGE_LENGTH);
+            assertEquals(in.read(), -1);
+        }
+        assertTrue(Arrays.equals(decoded, data));
+    }
+
+    /**
+     * Verifies exception for data missing its trailer.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = EOFException.class)
+    public void missingTrailerException() throws IOException {
+        decode(new byte[0]);
+    }
+
+    /**
+     * Verifies exception for data that ends within a symbol.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = EOFException.class)
+    public void truncatedDataException() throws IOException {
+        decode(new byte[] {'a', 0b01100000, 4});
+    }
+
+    /**
+     * Verifies exception for an invalid trailer.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = IOException.class)
+    public void corruptTrailerException() throws IOException {
+        decode(new byte[] {'a', Byte.SIZE});
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.IntConsumer;
+
+/**
+ * An output stream filter that compresses the bytes written to it with an
+ * {@link AdaptiveHuffmanCode} over the symbols 0 to 255. The code adapts as
+ * bytes are written, so no pass over the data beforehand and no code table
+ * are needed; the data can be read back with an
+ * {@link AdaptiveHuffmanInputStream}.
+ * <p>
+ * The encoded bits are laid out as by {@link HuffmanOutputStream}: packed
+ * most significant bit first, with the final partial byte padded with 0
+ * bits and followed by a trailer byte holding the number of padding bits.
+ * </p>
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class AdaptiveHuffmanOutputStream extends FilterOutputStream {
+
+    /** Size in bytes of the output buffer. */
+    public static final int BUFFER_SIZE = 8192;
+
+    /** Mask of the bits of a byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Most bytes one symbol can add to the buffer: a tree over 256 symbols
+     * has at most 513 nodes, so the NYT leaf is at most 256 deep, and a
+     * new symbol adds 8 bits to its path.
+     */
+    private static final int MAX_SYMBOL_BYTES =
+            (BYTE_MASK + 1 + Byte.SIZE) / Byte.SIZE + 1;
+
+    /** The adaptive code. */
+    private final AdaptiveHuffmanCode code;
+    /** Receiver of the bits of each code. */
+    private final IntConsumer bitSink;
+    /** Buffer of encoded bytes not yet written to the underlying stream. */
+    private final byte[] buffer;
+    /** Number of bytes in the buffer. */
+    private int count;
+    /** Pending bits not yet forming a full byte, right-aligned. */
+    private int accumulator;
+    /** Number of pending bits in the accumulator. */
+    private int pending;
+    /** Whether the trailer has been written. */
+    private boolean finished;
+
+    /**
+     * Creates a stream that compresses bytes with an adaptive code.
+     * @param out the underlying output stream
+     */
+    public AdaptiveHuffmanOutputStream(final OutputStream out) {
+        super(out);
+        this.code = new AdaptiveHuffmanCode(Byte.SIZE);
+        this.bitSink = this::putBit;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Encodes the low-order byte of the parameter.
+     * @param b the byte to encode
+     * @throws IOException if an IO error occurs or the stream is finished
+     */
+    @Override
+    public void write(final int b) throws IOException {
+        if (this.finished) {
+            throw new IOException("Stream finished.");
+        }
+        if (this.count > this.buffer.length - MAX_SYMBOL_BYTES) {
+            flushBuffer();
+        }
+        this.code.encode(b & BYTE_MASK, this.bitSink);
+    }
+
+    /**
+     * Encodes each byte in the given range.
+     * @param b the bytes to encode
+     * @param off the index of the first byte to encode
+     * @param len the number of bytes to encode
+     * @throws IOException if an IO error occurs or the stream is finished
+     */
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+        for (int i = off; i < off + len; i++) {
+            write(b[i]);
+        }
+    }
+
+    /**
+     * Writes all complete encoded bytes to the underlying stream and flushes
+     * it. Bits that do not yet fill a byte remain pending.
+     * @throws IOException if an IO error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        this.out.flush();
+    }
+
+    /**
+     * Pads and writes any pending bits and the trailer without closing the
+     * underlying stream. No further bytes may be written.
+     * @throws IOException if an IO error occurs
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+        flushBuffer();
+        int padding = 0;
+        if (this.pending > 0) {
+            padding = Byte.SIZE - this.pending;
+            for (int i = 0; i < padding; i++) {
+                putBit(0);
+            }
+        }
+        this.buffer[this.count++] = (byte) padding;
+        flushBuffer();
+        this.finished = true;
+    }
+
+    /**
+     * Finishes the encoded data and closes the underlying stream.
+     * @throws IOException if an IO error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * Appends a bit, moving each completed byte to the buffer. The buffer
+     * is flushed before any symbol that might not fit, so it always has
+     * room.
+     * @param bit the bit to append, 0 or 1
+     */
+    private void putBit(final int bit) {
+        this.accumulator = (this.accumulator << 1) | bit;
+        if (++this.pending == Byte.SIZE) {
+            this.buffer[this.count++] = (byte) this.accumulator;
+            this.accumulator = 0;
+            this.pending = 0;
+        }
+    }
+
+    /**
+     * Writes the buffer to the underlying stream.
+     * @throws IOException if an IO error occurs
+     */
+    private void flushBuffer() throws IOException {
+        if (this.count > 0) {
+            this.out.write(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Tests for AdaptiveHuffmanOutputStream.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class AdaptiveHuffmanOutputStreamTest {
+
+    /**
+     * Verifies encoded bits are packed and padded, followed by the trailer.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void packedOutputTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AdaptiveHuffmanOutputStream out =
+                new AdaptiveHuffmanOutputStream(bytes);
+        // "aab" encodes as 01100001 1 0 01100010
+        out.write(new byte[] {'a', 'a', 'b'});
+        out.close();
+        byte[] result = bytes.toByteArray();
+        assertEquals(result.length, 4);
+        assertEquals(result[0] & 0xFF, 0b01100001);
+        assertEquals(result[1] & 0xFF, 0b10011000);
+        assertEquals(result[2] & 0xFF, 0b10000000);
+        assertEquals(result[3], 6);
+    }
+
+    /**
+     * Verifies an empty stream consists of the trailer alone.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void emptyOutputTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new AdaptiveHuffmanOutputStream(bytes).close();
+        assertEquals(bytes.size(), 1);
+        assertEquals(bytes.toByteArray()[0], 0);
+    }
+
+    /**
+     * Verifies exception for writing after the stream is finished.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = IOException.class)
+    public void writeAfterFinishException() throws IOException {
+        AdaptiveHuffmanOutputStream out = new AdaptiveHuffmanOutputStream(
+                new ByteArrayOutputStream());
+        out.finish();
+        out.write('r');
+    }
+}
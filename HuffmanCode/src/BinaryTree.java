@@ -1,5 +1,11 @@
 import java.io.BufferedOutputStream;
 import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -10,8 +16,19 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * A generic binary tree whose root holds a non-null value.
@@ -46,6 +63,28 @@ import java.util.List;
  * and the empty tree as its right child.
  * </p>
  * <p>
+ * Each tree caches its number of nodes, number of leaves and height, so
+ * that <code>isLeaf()</code>, <code>numberOfNodes()</code>,
+ * <code>numberOfLeaves()</code> and <code>height()</code> run in constant
+ * time. Each tree also keeps a reference to the tree of which it is a
+ * child, so that replacing a child with <code>setLeftChild()</code> or
+ * <code>setRightChild()</code> updates the cached values of every ancestor.
+ * </p>
+ * <p>
+ * Traversals use an explicit stack rather than recursion, so they take
+ * time proportional to the number of nodes and memory proportional to the
+ * height, and do not overflow the call stack on degenerate trees. They are
+ * available as lists, as lazy iterators and as streams; modifying a tree
+ * while it is being traversed has undefined results.
+ * </p>
+ * <p>
+ * Besides Java serialization, a tree can be saved in a compact binary
+ * format using a {@link ValueCodec} for its values: the number of nodes,
+ * then two bits per node in preorder telling whether it has a left and a
+ * right child, then the values in preorder. Files in this format end with
+ * a CRC-32 checksum.
+ * </p>
+ * <p>
  * Two binary trees are equal if and only if<br>
  * (1) they have the same structure and<br>
  * (2) respective elements stored at respective nodes
@@ -89,6 +128,37 @@ public class BinaryTree<T>
      */
     public static final String SERIAL_FILENAME = "bt.ser";
 
+    /**
+     * Default file name for the compact binary format.
+     */
+    public static final String BINARY_FILENAME = "bt.bin";
+
+    /**
+     * Identifies a file in the compact binary format ("BTRE").
+     */
+    private static final int BINARY_MAGIC = 0x42545245;
+
+    /**
+     * Version of the compact binary format.
+     */
+    private static final int BINARY_VERSION = 1;
+
+    /**
+     * Size of the buffer used to compute file checksums.
+     */
+    private static final int CHECKSUM_BUFFER_SIZE = 8192;
+
+    /**
+     * Largest number of shape bytes allocated before they are read, so that
+     * a corrupt node count cannot allocate more than the input holds.
+     */
+    private static final int SHAPE_CHUNK_SIZE = 8192;
+
+    /**
+     * Number of nodes described by each byte of shape bits.
+     */
+    private static final int NODES_PER_SHAPE_BYTE = Byte.SIZE / 2;
+
     /**
      * Serialization version indicator used to determine
      * if a file is compatible with this class.
@@ -116,6 +186,28 @@ public class BinaryTree<T>
      */
     private BinaryTree<T> rightChild;
 
+    /**
+     * Tree of which this tree is a child;
+     * <code>null</code> if this tree is not a child.
+     * Restored from the children references after deserialization.
+     */
+    private transient BinaryTree<T> parent;
+
+    /**
+     * Cached number of nodes in this tree.
+     */
+    private transient int size;
+
+    /**
+     * Cached number of leaves in this tree.
+     */
+    private transient int leaves;
+
+    /**
+     * Cached height of this tree.
+     */
+    private transient int treeHeight;
+
     /**
      * Manages a singleton empty tree for leaf nodes.
      * @return the common empty tree
@@ -124,6 +216,17 @@ public class BinaryTree<T>
         return new BinaryTree<>();
     }
 
+    /**
+     * Creates a tree with no children to hold a value read by
+     * {@link #restore(String, ValueCodec)}. Subclasses override this so
+     * that restored trees are built from their own class.
+     * @param value the value stored at the root of the new tree
+     * @return a new tree with no children
+     */
+    protected BinaryTree<T> newTree(final T value) {
+        return new BinaryTree<>(value);
+    }
+
     /**
      * Constructs an empty tree.
      */
@@ -131,6 +234,7 @@ public class BinaryTree<T>
         this.rootValue = null;
         this.leftChild = null;
         this.rightChild = null;
+        this.treeHeight = -1;
     }
 
     /**
@@ -175,6 +279,9 @@ public class BinaryTree<T>
         } else {
             this.rightChild = rightchild;
         }
+        adopt(this.leftChild);
+        adopt(this.rightChild);
+        recompute();
     }
 
     /**
@@ -194,17 +301,7 @@ public class BinaryTree<T>
      * @return the number of nodes (subtrees)
      */
     public int numberOfNodes() {
-        int numNodes = 0;
-        if (this.rootValue != null) {
-            numNodes++;
-            if (this.getLeftChild() != null) {
-                numNodes += this.getLeftChild().numberOfNodes();
-            }
-            if (this.getRightChild() != null) {
-                numNodes += this.getRightChild().numberOfNodes();
-            }
-        }
-        return numNodes;
+        return this.size;
     }
 
     /**
@@ -218,7 +315,7 @@ public class BinaryTree<T>
         if (isEmpty()) {
             throw new NullPointerException();
         }
-        return numberOfNodes() == 1;
+        return this.leftChild.isEmpty() && this.rightChild.isEmpty();
     }
 
     /**
@@ -264,6 +361,14 @@ public class BinaryTree<T>
         return this.rightChild;
     }
 
+    /**
+     * Returns the tree of which this tree is a child.
+     * @return the parent tree; null if this tree is not a child
+     */
+    public BinaryTree<T> getParent() {
+        return this.parent;
+    }
+
     /**
      * Modifies the value of the root of this tree.
      * @param value the new value for the root
@@ -274,6 +379,7 @@ public class BinaryTree<T>
             throw new NullPointerException();
         }
         this.rootValue = value;
+        update();
     }
 
     /**
@@ -286,11 +392,14 @@ public class BinaryTree<T>
         if (isEmpty()) {
             throw new NullPointerException();
         }
+        disown(this.leftChild);
         if (null == child) {
             this.leftChild = emptyTree();
         } else {
             this.leftChild = child;
         }
+        adopt(this.leftChild);
+        update();
     }
 
     /**
@@ -303,11 +412,14 @@ public class BinaryTree<T>
         if (isEmpty()) {
             throw new NullPointerException();
         }
+        disown(this.rightChild);
         if (null == child) {
             this.rightChild = emptyTree();
         } else {
             this.rightChild = child;
         }
+        adopt(this.rightChild);
+        update();
     }
 
     /**
@@ -319,18 +431,7 @@ public class BinaryTree<T>
         if (isEmpty()) {
             throw new NullPointerException();
         }
-        int numLeaves = 0;
-        if (this.isLeaf()) {
-            numLeaves = 1;
-        } else {
-            if (!this.leftChild.isEmpty()) {
-                numLeaves += this.leftChild.numberOfLeaves();
-            }
-            if (!this.rightChild.isEmpty()) {
-                numLeaves += this.rightChild.numberOfLeaves();
-            }
-        }
-        return numLeaves;
+        return this.leaves;
     }
 
     /**
@@ -342,17 +443,67 @@ public class BinaryTree<T>
      * @return the height of this tree, -1 if empty
      */
     public final int height() {
-        if (isEmpty()) {
-            return -1;
+        return this.treeHeight;
+    }
+
+    /**
+     * Recomputes the cached node count, leaf count and height of this tree
+     * from those of its children.
+     * @return <code>true</code> if any cached value changed;
+     * <code>false</code> otherwise
+     */
+    private boolean recompute() {
+        int newSize = 0;
+        int newLeaves = 0;
+        int newHeight = -1;
+        if (!isEmpty()) {
+            newSize = 1 + this.leftChild.size + this.rightChild.size;
+            newHeight = 1 + Math.max(this.leftChild.treeHeight,
+                    this.rightChild.treeHeight);
+            if (isLeaf()) {
+                newLeaves = 1;
+            } else {
+                newLeaves = this.leftChild.leaves + this.rightChild.leaves;
+            }
         }
-        int maxChildHeight = -1;
-        if (!this.leftChild.isEmpty()) {
-            maxChildHeight = this.leftChild.height();
+        boolean changed = newSize != this.size
+                || newLeaves != this.leaves
+                || newHeight != this.treeHeight;
+        this.size = newSize;
+        this.leaves = newLeaves;
+        this.treeHeight = newHeight;
+        return changed;
+    }
+
+    /**
+     * Recomputes the cached values of this tree and of each ancestor,
+     * stopping at the first tree whose values are unchanged.
+     */
+    private void update() {
+        BinaryTree<T> tree = this;
+        while (tree != null && tree.recompute()) {
+            tree = tree.parent;
         }
-        if (!this.rightChild.isEmpty()) {
-            maxChildHeight = Math.max(maxChildHeight, this.rightChild.height());
+    }
+
+    /**
+     * Records this tree as the parent of a child.
+     * @param child the new child; may be an empty tree
+     */
+    private void adopt(final BinaryTree<T> child) {
+        if (child != null && !child.isEmpty()) {
+            child.parent = this;
+        }
+    }
+
+    /**
+     * Clears the parent of a child that is being replaced.
+     * @param child the old child; may be an empty tree
+     */
+    private void disown(final BinaryTree<T> child) {
+        if (child != null && child.parent == this) {
+            child.parent = null;
         }
-        return 1 + maxChildHeight;
     }
 
     /**
@@ -411,17 +562,12 @@ public class BinaryTree<T>
      * @return values of all nodes in preorder
      */
     public List<T> preorderValues() {
-        List<T> preorderV = new ArrayList<>();
-        if (this.numberOfNodes() != 0) {
-            preorderV.add(this.getValue());
-            if (this.getLeftChild() != null) {
-                preorderV.addAll(this.getLeftChild().preorderValues());
-            }
-            if (this.getRightChild() != null) {
-                preorderV.addAll(this.getRightChild().preorderValues());
-            }
+        List<T> values = new ArrayList<>(numberOfNodes());
+        Iterator<BinaryTree<T>> it = preorderIterator();
+        while (it.hasNext()) {
+            values.add(it.next().rootValue);
         }
-        return preorderV;
+        return values;
     }
 
     /**
@@ -431,17 +577,12 @@ public class BinaryTree<T>
      * @return values of all nodes in inorder
      */
     public List<T> inorderValues() {
-        List<T> inorderV = new ArrayList<>();
-        if (this.numberOfNodes() != 0) {
-            if (this.getLeftChild() != null) {
-                inorderV.addAll(this.getLeftChild().inorderValues());
-            }
-            inorderV.add(this.getValue());
-            if (this.getRightChild() != null) {
-                inorderV.addAll(this.getRightChild().inorderValues());
-            }
+        List<T> values = new ArrayList<>(numberOfNodes());
+        Iterator<BinaryTree<T>> it = inorderIterator();
+        while (it.hasNext()) {
+            values.add(it.next().rootValue);
         }
-        return inorderV;
+        return values;
     }
 
     /**
@@ -451,17 +592,12 @@ public class BinaryTree<T>
      * @return values of all nodes in postorder
      */
     public List<T> postorderValues() {
-        List<T> postorderV = new ArrayList<>();
-        if (this.numberOfNodes() != 0) {
-            if (this.getLeftChild() != null) {
-                postorderV.addAll(this.getLeftChild().postorderValues());
-            }
-            if (this.getRightChild() != null) {
-                postorderV.addAll(this.getRightChild().postorderValues());
-            }
-            postorderV.add(this.getValue());
+        List<T> values = new ArrayList<>(numberOfNodes());
+        Iterator<BinaryTree<T>> it = postorderIterator();
+        while (it.hasNext()) {
+            values.add(it.next().rootValue);
         }
-        return postorderV;
+        return values;
     }
 
     /**
@@ -471,18 +607,9 @@ public class BinaryTree<T>
      * @return all subtrees in preorder
      */
     public List<BinaryTree<T>> preorderSubtrees() {
-        List<BinaryTree<T>> preorderList
-                = new ArrayList<>();
-        if (this.numberOfNodes() != 0) {
-            preorderList.add(this);
-            if (this.getLeftChild() != null) {
-                preorderList.addAll(this.getLeftChild().preorderSubtrees());
-            }
-            if (this.getRightChild() != null) {
-                preorderList.addAll(this.getRightChild().preorderSubtrees());
-            }
-        }
-        return preorderList;
+        List<BinaryTree<T>> subtrees = new ArrayList<>(numberOfNodes());
+        preorderIterator().forEachRemaining(subtrees::add);
+        return subtrees;
     }
 
     /**
@@ -492,18 +619,9 @@ public class BinaryTree<T>
      * @return all subtrees in inorder
      */
     public List<BinaryTree<T>> inorderSubtrees() {
-        List<BinaryTree<T>> inorderList
-                = new ArrayList<>();
-        if (this.numberOfNodes() != 0) {
-            if (this.getLeftChild() != null) {
-                inorderList.addAll(this.getLeftChild().inorderSubtrees());
-            }
-            inorderList.add(this);
-            if (this.getRightChild() != null) {
-                inorderList.addAll(this.getRightChild().inorderSubtrees());
-            }
-        }
-        return inorderList;
+        List<BinaryTree<T>> subtrees = new ArrayList<>(numberOfNodes());
+        inorderIterator().forEachRemaining(subtrees::add);
+        return subtrees;
     }
 
     /**
@@ -513,18 +631,9 @@ public class BinaryTree<T>
      * @return all subtrees in postorder
      */
     public List<BinaryTree<T>> postorderSubtrees() {
-        List<BinaryTree<T>> postorderList
-                = new ArrayList<>();
-        if (this.numberOfNodes() != 0) {
-            if (this.getLeftChild() != null) {
-                postorderList.addAll(this.getLeftChild().postorderSubtrees());
-            }
-            if (this.getRightChild() != null) {
-                postorderList.addAll(this.getRightChild().postorderSubtrees());
-            }
-            postorderList.add(this);
-        }
-        return postorderList;
+        List<BinaryTree<T>> subtrees = new ArrayList<>(numberOfNodes());
+        postorderIterator().forEachRemaining(subtrees::add);
+        return subtrees;
     }
 
     /**
@@ -549,12 +658,66 @@ public class BinaryTree<T>
     }
 
     /**
-     * Returns an iterator over the subtrees (nodes) of this tree.
+     * Returns an iterator over the subtrees (nodes) of this tree
+     * in postorder.
      * @return an iterator over subtrees of this tree
      */
     @Override
-    public java.util.Iterator<BinaryTree<T>> iterator() {
-        return this.postorderSubtrees().iterator();
+    public Iterator<BinaryTree<T>> iterator() {
+        return postorderIterator();
+    }
+
+    /**
+     * Returns a lazy iterator over the subtrees of this tree in preorder.
+     * @return an iterator over subtrees of this tree in preorder
+     */
+    public Iterator<BinaryTree<T>> preorderIterator() {
+        return new Traversal<>(this, Traversal.PREORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the subtrees of this tree in inorder.
+     * @return an iterator over subtrees of this tree in inorder
+     */
+    public Iterator<BinaryTree<T>> inorderIterator() {
+        return new Traversal<>(this, Traversal.INORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the subtrees of this tree in postorder.
+     * @return an iterator over subtrees of this tree in postorder
+     */
+    public Iterator<BinaryTree<T>> postorderIterator() {
+        return new Traversal<>(this, Traversal.POSTORDER);
+    }
+
+    /**
+     * Returns a spliterator over the subtrees of this tree in postorder,
+     * the order of {@link #iterator()}. It knows its exact size and splits
+     * into parts of about equal size.
+     * @return a spliterator over subtrees of this tree
+     */
+    @Override
+    public Spliterator<BinaryTree<T>> spliterator() {
+        return new Traversal<>(this, Traversal.POSTORDER);
+    }
+
+    /**
+     * Returns a sequential stream of the subtrees of this tree
+     * in postorder.
+     * @return a stream of subtrees of this tree
+     */
+    public Stream<BinaryTree<T>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a possibly parallel stream of the subtrees of this tree
+     * in postorder.
+     * @return a parallel stream of subtrees of this tree
+     */
+    public Stream<BinaryTree<T>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
     /**
@@ -616,10 +779,12 @@ public class BinaryTree<T>
         if (treeFileName == null) {
             treeFileName = BinaryTree.SERIAL_FILENAME;
         }
-        // Serialize the tree.
+        // Serialize the tree, computing a checksum of the bytes written.
+        CRC32 crc = new CRC32();
         try {
             OutputStream file = new FileOutputStream(treeFileName);
-            OutputStream buffer = new BufferedOutputStream(file);
+            OutputStream checked = new CheckedOutputStream(file, crc);
+            OutputStream buffer = new BufferedOutputStream(checked);
             ObjectOutput output = new ObjectOutputStream(buffer);
             try {
                 output.writeObject(this);
@@ -631,29 +796,13 @@ public class BinaryTree<T>
             throw ex;
         }
 
-        // Attempt to deserialize the graph as verification.
+        // Verify the file by checksum rather than by deserializing it.
         try {
-            InputStream file = new FileInputStream(treeFileName);
-            InputStream buffer = new BufferedInputStream(file);
-            ObjectInput input = new ObjectInputStream(buffer);
-            try {
-                BinaryTree<T> restored = readObject(input);
-                // Use toString for quick check.
-                if (!this.toString().equals(restored.toString())) {
-                    success = false;
-                }
-                // Use compareTrees predicate for deeper check.
-                if (!compareTrees(this, restored)) {
-                    success = false;
-                }
-            } finally {
-                input.close();
+            long length = new File(treeFileName).length();
+            if (checksum(treeFileName, length) != crc.getValue()) {
+                success = false;
             }
-        } catch (ClassNotFoundException ex) {
-            // System.err.println("save: restore-check Class not found. " + ex);
-            success = false;
         } catch (IOException ex) {
-            // System.err.println("save: restore-check exception.  " + ex);
             success = false;
         }
         return success;    }
@@ -703,12 +852,355 @@ public class BinaryTree<T>
             // Invalid; BinaryTree cannot be null.
             success = false;
         } else {
-            this.rootValue = restored.rootValue;
-            this.leftChild = restored.leftChild;
-            this.rightChild = restored.rightChild;
+            replaceWith(restored);
         }
         return success;    }
 
+    /**
+     * Saves this tree to a file in the compact binary format and verifies
+     * the file by its checksum.
+     * @param filename the name of the file in which to save this tree;
+     *                 if null, uses default binary file name
+     * @param codec the codec with which to write values
+     * @return <code>true</code> if successful save;
+     * <code>false</code> otherwise
+     * @throws IOException if unexpected IO error
+     */
+    public final boolean save(final String filename,
+                              final ValueCodec<? super T> codec)
+            throws IOException {
+        return save(filename, codec, true);
+    }
+
+    /**
+     * Saves this tree to a file in the compact binary format. The file is
+     * verified, if requested, by reading it back and comparing its
+     * checksum with that of the bytes written; the values are not decoded.
+     * @param filename the name of the file in which to save this tree;
+     *                 if null, uses default binary file name
+     * @param codec the codec with which to write values
+     * @param verify whether to verify the file after writing it
+     * @return <code>true</code> if successful save;
+     * <code>false</code> otherwise
+     * @throws IOException if unexpected IO error
+     */
+    public final boolean save(final String filename,
+                              final ValueCodec<? super T> codec,
+                              final boolean verify)
+            throws IOException {
+        String treeFileName = filename;
+        if (treeFileName == null) {
+            treeFileName = BinaryTree.BINARY_FILENAME;
+        }
+        CRC32 crc = new CRC32();
+        OutputStream file = new FileOutputStream(treeFileName);
+        OutputStream checked = new CheckedOutputStream(file, crc);
+        DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(checked));
+        long written;
+        try {
+            output.writeInt(BINARY_MAGIC);
+            output.writeByte(BINARY_VERSION);
+            write(output, codec);
+            output.flush();
+            written = crc.getValue();
+            output.writeInt((int) written);
+        } finally {
+            output.close();
+        }
+        if (!verify) {
+            return true;
+        }
+        try {
+            long length = new File(treeFileName).length() - Integer.BYTES;
+            return checksum(treeFileName, length) == written;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Restores this tree from a file in the compact binary format.
+     * <br><em>Postconditions:</em>
+     * <blockquote>If successful, previous contents of this tree have
+     * been replaced by the contents of the file.
+     * If unsuccessful, content of the tree is unchanged.</blockquote>
+     * @param filename the name of the file from which to restore this tree;
+     *                 if null, uses default binary file name
+     * @param codec the codec with which to read values
+     * @return <code>true</code> if successful restore;
+     * <code>false</code> if the file is missing, is not in the binary
+     * format, or is corrupt
+     * @throws IOException if unexpected IO error
+     */
+    public final boolean restore(final String filename,
+                                 final ValueCodec<? extends T> codec)
+            throws IOException {
+        String treeFileName = filename;
+        if (treeFileName == null) {
+            treeFileName = BinaryTree.BINARY_FILENAME;
+        }
+        BinaryTree<T> restored;
+        CRC32 crc = new CRC32();
+        try {
+            InputStream file = new FileInputStream(treeFileName);
+            InputStream buffer = new BufferedInputStream(file);
+            DataInputStream input = new DataInputStream(
+                    new CheckedInputStream(buffer, crc));
+            try {
+                if (input.readInt() != BINARY_MAGIC
+                        || input.readUnsignedByte() != BINARY_VERSION) {
+                    return false;
+                }
+                long nodeLimit = NODES_PER_SHAPE_BYTE
+                        * new File(treeFileName).length();
+                restored = readTree(input, codec, nodeLimit);
+                int expected = (int) crc.getValue();
+                if (input.readInt() != expected) {
+                    return false;
+                }
+            } finally {
+                input.close();
+            }
+        } catch (FileNotFoundException ex) {
+            // FileNoteFoundException is common.
+            return false;
+        } catch (EOFException | StreamCorruptedException ex) {
+            // Truncated or corrupt file.
+            return false;
+        }
+        replaceWith(restored);
+        return true;
+    }
+
+    /**
+     * Writes this tree in the compact binary format, without the file
+     * header and checksum.
+     * @param out the output to which to write
+     * @param codec the codec with which to write values
+     * @throws IOException if an IO error occurs
+     */
+    public void write(final DataOutput out,
+                      final ValueCodec<? super T> codec)
+            throws IOException {
+        int n = numberOfNodes();
+        out.writeInt(n);
+        byte[] shape = new byte[(int) ((2L * n + Byte.SIZE - 1) / Byte.SIZE)];
+        int bit = 0;
+        Iterator<BinaryTree<T>> it = preorderIterator();
+        while (it.hasNext()) {
+            BinaryTree<T> tree = it.next();
+            if (!tree.leftChild.isEmpty()) {
+                shape[bit / Byte.SIZE] |= 0x80 >>> (bit % Byte.SIZE);
+            }
+            bit++;
+            if (!tree.rightChild.isEmpty()) {
+                shape[bit / Byte.SIZE] |= 0x80 >>> (bit % Byte.SIZE);
+            }
+            bit++;
+        }
+        out.write(shape);
+        it = preorderIterator();
+        while (it.hasNext()) {
+            codec.write(it.next().rootValue, out);
+        }
+    }
+
+    /**
+     * Reads a tree written by {@link #write(DataOutput, ValueCodec)}.
+     * @param <E> the type of value stored by the tree
+     * @param in the input from which to read
+     * @param codec the codec with which to read values
+     * @return the tree read
+     * @throws IOException if an IO error occurs
+     * @throws StreamCorruptedException if the data does not describe a tree
+     */
+    public static <E> BinaryTree<E> read(final DataInput in,
+                                         final ValueCodec<? extends E> codec)
+            throws IOException {
+        return new BinaryTree<E>().readTree(in, codec, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads a tree in the compact binary format, creating its nodes with
+     * {@link #newTree(Object)}. Subtree sizes are computed from the shape
+     * bits from the last node back, which places each right child, and the
+     * nodes are then linked from the last back so that every child is
+     * complete before it is attached.
+     * <p>
+     * Nothing is allocated in proportion to the node count until the shape
+     * bits have been read and found to hold one child link for each node
+     * but the root, so a corrupt count fails with an exception rather than
+     * running out of memory.
+     * </p>
+     * @param in the input from which to read
+     * @param codec the codec with which to read values
+     * @param nodeLimit the largest node count the input could hold
+     * @return the tree read
+     * @throws IOException if an IO error occurs
+     * @throws StreamCorruptedException if the data does not describe a tree
+     */
+    private BinaryTree<T> readTree(final DataInput in,
+                                   final ValueCodec<? extends T> codec,
+                                   final long nodeLimit)
+            throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n > nodeLimit) {
+            throw new StreamCorruptedException("Corrupt tree data.");
+        }
+        if (n == 0) {
+            return new BinaryTree<>();
+        }
+        byte[] shape = readShape(in,
+                (int) ((2L * n + Byte.SIZE - 1) / Byte.SIZE));
+        long links = 0;
+        for (byte b : shape) {
+            links += Integer.bitCount(b & 0xFF);
+        }
+        if (links != n - 1) {
+            throw new StreamCorruptedException("Corrupt tree data.");
+        }
+        int[] sizes = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int size = 1;
+            int child = i + 1;
+            if (shapeBit(shape, 2 * i)) {
+                if (child >= n) {
+                    throw new StreamCorruptedException("Corrupt tree data.");
+                }
+                size += sizes[child];
+                child += sizes[child];
+            }
+            if (shapeBit(shape, 2 * i + 1)) {
+                if (child >= n) {
+                    throw new StreamCorruptedException("Corrupt tree data.");
+                }
+                size += sizes[child];
+            }
+            sizes[i] = size;
+        }
+        if (sizes[0] != n) {
+            throw new StreamCorruptedException("Corrupt tree data.");
+        }
+        List<BinaryTree<T>> nodes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            T value = codec.read(in);
+            if (value == null) {
+                throw new StreamCorruptedException("Null tree value.");
+            }
+            nodes.add(newTree(value));
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            BinaryTree<T> tree = nodes.get(i);
+            int child = i + 1;
+            if (shapeBit(shape, 2 * i)) {
+                tree.setLeftChild(nodes.get(child));
+                child += sizes[child];
+            }
+            if (shapeBit(shape, 2 * i + 1)) {
+                tree.setRightChild(nodes.get(child));
+            }
+        }
+        return nodes.get(0);
+    }
+
+    /**
+     * Utility to read the shape bits of the binary format, growing the
+     * array only as bytes arrive.
+     * @param in the input from which to read
+     * @param length the number of shape bytes
+     * @return the shape bytes
+     * @throws IOException if an IO error occurs
+     * @throws EOFException if the input ends first
+     */
+    private static byte[] readShape(final DataInput in, final int length)
+            throws IOException {
+        byte[] shape = new byte[Math.min(length, SHAPE_CHUNK_SIZE)];
+        in.readFully(shape);
+        while (shape.length < length) {
+            int read = shape.length;
+            shape = Arrays.copyOf(shape,
+                    (int) Math.min(length, 2L * shape.length));
+            in.readFully(shape, read, shape.length - read);
+        }
+        return shape;
+    }
+
+    /**
+     * Utility to test a bit of the shape bits of the binary format.
+     * @param shape the shape bits, most significant bit first
+     * @param index the index of the bit
+     * @return <code>true</code> if the bit is set
+     */
+    private static boolean shapeBit(final byte[] shape, final int index) {
+        return (shape[index / Byte.SIZE] & (0x80 >>> (index % Byte.SIZE)))
+                != 0;
+    }
+
+    /**
+     * Utility to compute the CRC-32 checksum of the start of a file.
+     * @param filename the name of the file
+     * @param length the number of bytes to include
+     * @return the checksum of the first <code>length</code> bytes
+     * @throws IOException if IO error or the file is shorter than length
+     */
+    private static long checksum(final String filename, final long length)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        InputStream input = new FileInputStream(filename);
+        try {
+            byte[] buffer = new byte[CHECKSUM_BUFFER_SIZE];
+            long left = length;
+            while (left > 0) {
+                int n = input.read(buffer, 0,
+                        (int) Math.min(buffer.length, left));
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                crc.update(buffer, 0, n);
+                left -= n;
+            }
+        } finally {
+            input.close();
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Replaces the contents of this tree with those of another tree.
+     * @param restored the tree whose root value and children to take
+     */
+    private void replaceWith(final BinaryTree<T> restored) {
+        disown(this.leftChild);
+        disown(this.rightChild);
+        this.rootValue = restored.rootValue;
+        this.leftChild = restored.leftChild;
+        this.rightChild = restored.rightChild;
+        adopt(this.leftChild);
+        adopt(this.rightChild);
+        update();
+    }
+
+    /**
+     * Restores the transient parent references and cached values after
+     * deserialization. The children have already been read, so their
+     * cached values are valid.
+     * @param in the stream from which this tree is read
+     * @throws IOException if IO error
+     * @throws ClassNotFoundException if class could not be found
+     */
+    private void readObject(final ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (isEmpty()) {
+            this.treeHeight = -1;
+        } else {
+            adopt(this.leftChild);
+            adopt(this.rightChild);
+            recompute();
+        }
+    }
+
     /**
      * Utility to read object from ObjectInputStream and cast to appropriate
      * type to work around type erasure. Suppresses unchecked cast warnings.
@@ -773,4 +1265,224 @@ public class BinaryTree<T>
         }
         return true;
     }
+
+    /**
+     * A traversal of a tree in preorder, inorder or postorder, usable as
+     * both an iterator and a spliterator. The work remaining is kept on a
+     * stack of items, each either a whole subtree still to be traversed or
+     * a single node to be visited, with the next item on top. Taking the
+     * next node expands whole subtrees on top of the stack into their root
+     * and children in the order of the traversal, so the stack holds at
+     * most about two items per level of the tree. Splitting hands the top
+     * items, which come first in the traversal, to a new traversal.
+     *
+     * @param <T> the type of value stored by the tree
+     */
+    private static final class Traversal<T>
+            implements Iterator<BinaryTree<T>>, Spliterator<BinaryTree<T>> {
+
+        /** Visit each node before its children. */
+        static final int PREORDER = 0;
+        /** Visit each node between its left and right children. */
+        static final int INORDER = 1;
+        /** Visit each node after its children. */
+        static final int POSTORDER = 2;
+
+        /** Initial capacity of the stack. */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /** The order of this traversal. */
+        private final int order;
+        /** Trees on the stack. */
+        private BinaryTree<?>[] items;
+        /** Whether each tree on the stack is to be traversed whole. */
+        private boolean[] whole;
+        /** Number of items on the stack. */
+        private int top;
+        /** Number of nodes not yet visited. */
+        private long remaining;
+
+        /**
+         * Creates a traversal of a tree.
+         * @param tree the tree to traverse; may be empty
+         * @param order PREORDER, INORDER or POSTORDER
+         */
+        Traversal(final BinaryTree<T> tree, final int order) {
+            this(order);
+            pushTree(tree);
+        }
+
+        /**
+         * Creates a traversal with nothing to visit.
+         * @param order PREORDER, INORDER or POSTORDER
+         */
+        private Traversal(final int order) {
+            this.order = order;
+            this.items = new BinaryTree<?>[INITIAL_CAPACITY];
+            this.whole = new boolean[INITIAL_CAPACITY];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.top > 0;
+        }
+
+        @Override
+        public BinaryTree<T> next() {
+            if (this.top == 0) {
+                throw new NoSuchElementException();
+            }
+            while (true) {
+                BinaryTree<T> tree = pop();
+                if (!this.whole[this.top] || tree.isLeaf()) {
+                    return tree;
+                }
+                if (this.order == PREORDER) {
+                    pushTree(tree.rightChild);
+                    pushTree(tree.leftChild);
+                    return tree;
+                }
+                expand(tree);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(
+                final Consumer<? super BinaryTree<T>> action) {
+            if (this.top == 0) {
+                return false;
+            }
+            action.accept(next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(
+                final Consumer<? super BinaryTree<T>> action) {
+            while (this.top > 0) {
+                action.accept(next());
+            }
+        }
+
+        @Override
+        public Spliterator<BinaryTree<T>> trySplit() {
+            if (this.top == 1 && this.whole[0] && !itemAt(0).isLeaf()) {
+                expand(pop());
+            }
+            if (this.top < 2) {
+                return null;
+            }
+            Traversal<T> prefix = new Traversal<>(this.order);
+            long half = this.remaining / 2;
+            int bottom = this.top;
+            long taken = 0;
+            while (bottom > 1 && taken < half) {
+                bottom--;
+                taken += sizeAt(bottom);
+            }
+            for (int i = bottom; i < this.top; i++) {
+                prefix.push(this.items[i], this.whole[i], sizeAt(i));
+            }
+            Arrays.fill(this.items, bottom, this.top, null);
+            this.top = bottom;
+            this.remaining -= taken;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+
+        /**
+         * Pushes the root and children of a subtree so that they are taken
+         * in the order of this traversal.
+         * @param tree a non-leaf subtree
+         */
+        private void expand(final BinaryTree<T> tree) {
+            if (this.order == POSTORDER) {
+                push(tree, false, 1);
+                pushTree(tree.rightChild);
+                pushTree(tree.leftChild);
+            } else if (this.order == INORDER) {
+                pushTree(tree.rightChild);
+                push(tree, false, 1);
+                pushTree(tree.leftChild);
+            } else {
+                pushTree(tree.rightChild);
+                pushTree(tree.leftChild);
+                push(tree, false, 1);
+            }
+        }
+
+        /**
+         * Pushes a subtree to be traversed whole, unless it is empty.
+         * @param tree the subtree
+         */
+        private void pushTree(final BinaryTree<T> tree) {
+            if (tree != null && !tree.isEmpty()) {
+                push(tree, true, tree.size);
+            }
+        }
+
+        /**
+         * Pushes an item, growing the stack if needed.
+         * @param tree the tree of the item
+         * @param all whether the tree is to be traversed whole
+         * @param size the number of nodes the item visits
+         */
+        private void push(final BinaryTree<?> tree,
+                          final boolean all,
+                          final long size) {
+            if (this.top == this.items.length) {
+                this.items = Arrays.copyOf(this.items, 2 * this.top);
+                this.whole = Arrays.copyOf(this.whole, 2 * this.top);
+            }
+            this.items[this.top] = tree;
+            this.whole[this.top] = all;
+            this.top++;
+            this.remaining += size;
+        }
+
+        /**
+         * Pops the top item from the stack. Whether the item was to be
+         * traversed whole remains available at <code>whole[top]</code>.
+         * @return the tree of the item
+         */
+        private BinaryTree<T> pop() {
+            this.remaining -= sizeAt(this.top - 1);
+            this.top--;
+            BinaryTree<T> tree = itemAt(this.top);
+            this.items[this.top] = null;
+            return tree;
+        }
+
+        /**
+         * Returns the number of nodes an item on the stack visits.
+         * @param index the position of the item on the stack
+         * @return the number of nodes the item visits
+         */
+        private long sizeAt(final int index) {
+            if (this.whole[index]) {
+                return this.items[index].size;
+            }
+            return 1;
+        }
+
+        /**
+         * Returns the tree of an item on the stack, working around the
+         * erasure of the stack's element type.
+         * @param index the position of the item on the stack
+         * @return the tree of the item
+         */
+        @SuppressWarnings("unchecked")
+        private BinaryTree<T> itemAt(final int index) {
+            return (BinaryTree<T>) this.items[index];
+        }
+    }
 }
@@ -0,0 +1,287 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A canonical prefix code, determined entirely by the code length of each
+ * symbol. Symbols are ordered by code length and then by symbol value; the
+ * first symbol receives the all-zero code of its length and each following
+ * symbol receives the previous code plus one, shifted left to the new
+ * length whenever the length grows. Because of this, a code can be stored
+ * or transmitted as its length vector alone.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class CanonicalCode {
+
+    /** Longest code length supported. */
+    public static final int MAX_CODE_LENGTH = StringOfBits.WORD_SIZE;
+
+    /** Largest symbol value supported. */
+    public static final int MAX_SYMBOL = Character.MAX_VALUE;
+
+    /** Symbols in canonical order (by length, then by value). */
+    private final int[] symbols;
+    /** Code length of each symbol, parallel to symbols. */
+    private final int[] lengths;
+    /** Code of each symbol, right-aligned, parallel to symbols. */
+    private final long[] codes;
+    /** Code length indexed by symbol value; 0 if not in the code. */
+    private final int[] lengthBySymbol;
+    /** Code indexed by symbol value. */
+    private final long[] codeBySymbol;
+
+    /**
+     * Creates the canonical code for the given symbols and code lengths.
+     * @param symbols the symbols of the code, without duplicates
+     * @param lengths the code length of each symbol, from 1 to 64
+     * @throws IllegalArgumentException if the arrays differ in length, a
+     *         symbol is out of range or repeated, a length is out of range,
+     *         or the lengths are too short to form a prefix code
+     */
+    public CanonicalCode(final int[] symbols, final int[] lengths)
+            throws IllegalArgumentException {
+        if (symbols.length != lengths.length) {
+            throw new IllegalArgumentException("Array lengths differ.");
+        }
+        int n = symbols.length;
+        long[] keys = new long[n];
+        int maxSymbol = -1;
+        for (int i = 0; i < n; i++) {
+            if (symbols[i] < 0 || symbols[i] > MAX_SYMBOL) {
+                throw new IllegalArgumentException("Symbol out of range.");
+            }
+            if (lengths[i] < 1 || lengths[i] > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Length out of range.");
+            }
+            keys[i] = ((long) lengths[i] << Integer.SIZE) | symbols[i];
+            maxSymbol = Math.max(maxSymbol, symbols[i]);
+        }
+        Arrays.sort(keys);
+        this.symbols = new int[n];
+        this.lengths = new int[n];
+        this.codes = new long[n];
+        this.lengthBySymbol = new int[maxSymbol + 1];
+        this.codeBySymbol = new long[maxSymbol + 1];
+        long code = 0;
+        int previousLength = 0;
+        boolean exhausted = false;
+        for (int i = 0; i < n; i++) {
+            int symbol = (int) keys[i];
+            int length = (int) (keys[i] >>> Integer.SIZE);
+            if (exhausted) {
+                throw new IllegalArgumentException("Lengths are too short.");
+            }
+            if (this.lengthBySymbol[symbol] != 0) {
+                throw new IllegalArgumentException("Repeated symbol.");
+            }
+            code <<= length - previousLength;
+            this.symbols[i] = symbol;
+            this.lengths[i] = length;
+            this.codes[i] = code;
+            this.lengthBySymbol[symbol] = length;
+            this.codeBySymbol[symbol] = code;
+            if (code == lowMask(length)) {
+                exhausted = true;
+            }
+            code++;
+            previousLength = length;
+        }
+    }
+
+    /**
+     * Creates the canonical code with the same code lengths as the given
+     * symbol-to-code mapping. A lone symbol with an empty code is given a
+     * code of length 1.
+     * @param code a mapping of symbols to codes
+     * @return the canonical code with the same lengths
+     * @throws IllegalArgumentException if a code is longer than 64 bits
+     */
+    public static CanonicalCode fromCode(
+            final Map<Character, StringOfBits> code)
+            throws IllegalArgumentException {
+        int[] symbols = new int[code.size()];
+        int[] lengths = new int[code.size()];
+        int i = 0;
+        for (Map.Entry<Character, StringOfBits> e : code.entrySet()) {
+            symbols[i] = e.getKey();
+            lengths[i] = Math.max(1, e.getValue().length());
+            i++;
+        }
+        return new CanonicalCode(symbols, lengths);
+    }
+
+    /**
+     * Creates the canonical code for a vector of code lengths indexed by
+     * symbol. Symbols of length 0 are not in the code.
+     * @param lengths the code length of each symbol, indexed by symbol
+     * @return the canonical code with the given lengths
+     * @throws IllegalArgumentException if the vector is longer than
+     *         MAX_SYMBOL + 1, a length is out of range, or the lengths are
+     *         too short to form a prefix code
+     */
+    public static CanonicalCode fromLengths(final int[] lengths)
+            throws IllegalArgumentException {
+        if (lengths.length > MAX_SYMBOL + 1) {
+            throw new IllegalArgumentException("Symbol out of range.");
+        }
+        int n = 0;
+        for (int length : lengths) {
+            if (length != 0) {
+                n++;
+            }
+        }
+        int[] symbols = new int[n];
+        int[] codeLengths = new int[n];
+        int i = 0;
+        for (int symbol = 0; symbol < lengths.length; symbol++) {
+            if (lengths[symbol] != 0) {
+                symbols[i] = symbol;
+                codeLengths[i] = lengths[symbol];
+                i++;
+            }
+        }
+        return new CanonicalCode(symbols, codeLengths);
+    }
+
+    /**
+     * Reads a canonical code written by {@link #write(DataOutput)}.
+     * @param in the input from which to read
+     * @return the canonical code read
+     * @throws IOException if an IO error occurs
+     * @throws IllegalArgumentException if the lengths read do not form a
+     *         valid code
+     */
+    public static CanonicalCode read(final DataInput in)
+            throws IOException, IllegalArgumentException {
+        int n = in.readUnsignedShort() + 1;
+        int[] symbols = new int[n];
+        int[] lengths = new int[n];
+        for (int i = 0; i < n; i++) {
+            symbols[i] = in.readChar();
+            lengths[i] = in.readUnsignedByte();
+        }
+        return new CanonicalCode(symbols, lengths);
+    }
+
+    /**
+     * Writes this code as a compact length vector: the number of symbols
+     * less one as an unsigned short, then for each symbol its value as a
+     * char and its code length as a byte.
+     * @param out the output to which to write
+     * @throws IOException if an IO error occurs
+     * @throws IllegalStateException if this code has no symbols
+     */
+    public void write(final DataOutput out)
+            throws IOException, IllegalStateException {
+        if (size() == 0) {
+            throw new IllegalStateException("Empty code.");
+        }
+        out.writeShort(size() - 1);
+        for (int i = 0; i < size(); i++) {
+            out.writeChar(this.symbols[i]);
+            out.writeByte(this.lengths[i]);
+        }
+    }
+
+    /**
+     * Returns the number of symbols in this code.
+     * @return the number of symbols
+     */
+    public int size() {
+        return this.symbols.length;
+    }
+
+    /**
+     * Returns the symbols of this code in canonical order.
+     * @return a copy of the symbols
+     */
+    public int[] getSymbols() {
+        return this.symbols.clone();
+    }
+
+    /**
+     * Returns the code lengths of this code in canonical order.
+     * @return a copy of the code lengths
+     */
+    public int[] getLengths() {
+        return this.lengths.clone();
+    }
+
+    /**
+     * Returns the code length of a symbol.
+     * @param symbol the symbol
+     * @return the length of the symbol's code; 0 if not in this code
+     */
+    public int getLength(final int symbol) {
+        if (symbol < 0 || symbol >= this.lengthBySymbol.length) {
+            return 0;
+        }
+        return this.lengthBySymbol[symbol];
+    }
+
+    /**
+     * Returns the code of a symbol, right-aligned. Only meaningful if
+     * <code>getLength(symbol) != 0</code>.
+     * @param symbol the symbol
+     * @return the symbol's code
+     */
+    public long getCode(final int symbol) {
+        if (symbol < 0 || symbol >= this.codeBySymbol.length) {
+            return 0L;
+        }
+        return this.codeBySymbol[symbol];
+    }
+
+    /**
+     * Builds the lookup tables for decoding with this code.
+     * @return a decode table for this code
+     */
+    public HuffmanDecodeTable getDecodeTable() {
+        return new HuffmanDecodeTable(this.symbols, this.codes, this.lengths);
+    }
+
+    /**
+     * Returns this code as a symbol-to-code mapping.
+     * @return a mapping of symbols (as chars) to codes
+     */
+    public Map<Character, StringOfBits> toCodeMap() {
+        HashMap<Character, StringOfBits> map = new HashMap<>();
+        for (int i = 0; i < size(); i++) {
+            map.put((char) this.symbols[i],
+                    new StringOfBits().append(this.codes[i], this.lengths[i]));
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if ((o == null) || (o.getClass() != this.getClass())) {
+            return false;
+        }
+        CanonicalCode other = (CanonicalCode) o;
+        return Arrays.equals(this.symbols, other.symbols)
+                && Arrays.equals(this.lengths, other.lengths);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.symbols) + Arrays.hashCode(this.lengths);
+    }
+
+    /**
+     * Utility method returning a mask of the low-order bits of a long.
+     * @param count the number of low-order bits to keep, 0 to 64
+     * @return a mask with the low count bits set
+     */
+    private static long lowMask(final int count) {
+        if (count >= StringOfBits.WORD_SIZE) {
+            return -1L;
+        }
+        return (1L << count) - 1;
+    }
+}
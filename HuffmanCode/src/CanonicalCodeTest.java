@@ -0,0 +1,121 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Tests for CanonicalCode.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class CanonicalCodeTest {
+
+    /** Symbols of the "roadrunner" code. */
+    private static final int[] SYMBOLS = {'r', 'o', 'a', 'd', 'u', 'n', 'e'};
+
+    /** Code lengths of the "roadrunner" code. */
+    private static final int[] LENGTHS = {2, 3, 3, 4, 4, 2, 3};
+
+    /** Default string seed. */
+    private static final String SEED = "roadrunner";
+
+    /**
+     * Verifies codes are assigned in canonical order.
+     */
+    @Test
+    public void canonicalAssignmentTest() {
+        CanonicalCode code = new CanonicalCode(SYMBOLS, LENGTHS);
+        Map<Character, StringOfBits> map = code.toCodeMap();
+        assertEquals(map.get('n').toString(), "00");
+        assertEquals(map.get('r').toString(), "01");
+        assertEquals(map.get('a').toString(), "100");
+        assertEquals(map.get('e').toString(), "101");
+        assertEquals(map.get('o').toString(), "110");
+        assertEquals(map.get('d').toString(), "1110");
+        assertEquals(map.get('u').toString(), "1111");
+        assertEquals(code.getLength('z'), 0);
+    }
+
+    /**
+     * Verifies a code survives writing and reading its length vector.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void writeReadTest() throws IOException {
+        CanonicalCode code = new CanonicalCode(SYMBOLS, LENGTHS);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        code.write(new DataOutputStream(bytes));
+        assertEquals(bytes.size(), 2 + 3 * SYMBOLS.length);
+        CanonicalCode read = CanonicalCode.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(read, code);
+    }
+
+    /**
+     * Tests encoding and decoding through a canonical HuffmanCode.
+     */
+    @Test
+    public void canonicalHuffmanCodeTest() {
+        HuffmanCode seeded = new HuffmanCode(SEED);
+        CanonicalCode canonical = seeded.getCanonicalCode();
+        HuffmanCode hc = new HuffmanCode(canonical);
+        String[] words = {"", "unordered", "rodeo", "neuron", "roadrunner"};
+        for (String word : words) {
+            StringOfBits encoded = hc.encode(word);
+            assertEquals(encoded.length(), seeded.encode(word).length());
+            assertEquals(hc.decode(encoded), word);
+        }
+        assertEquals(hc.getCanonicalCode(), canonical);
+    }
+
+    /**
+     * Verifies a single-symbol code is given a one-bit code.
+     */
+    @Test
+    public void singleSymbolTest() {
+        HuffmanCode hc = new HuffmanCode(
+                new HuffmanCode("aaaa").getCanonicalCode());
+        assertEquals(hc.encode("aaa").toString(), "000");
+        assertEquals(hc.decode(hc.encode("aaa")), "aaa");
+    }
+
+    /**
+     * Verifies a code built from a length vector indexed by symbol.
+     */
+    @Test
+    public void fromLengthsTest() {
+        int[] lengths = new int['d' + 1];
+        lengths['a'] = 1;
+        lengths['b'] = 2;
+        lengths['d'] = 2;
+        CanonicalCode code = CanonicalCode.fromLengths(lengths);
+        assertEquals(3, code.size());
+        assertEquals(0, code.getLength('c'));
+        assertEquals(0b11L, code.getCode('d'));
+        assertEquals(new CanonicalCode(new int[] {'a', 'b', 'd'},
+                new int[] {1, 2, 2}), code);
+    }
+
+    /**
+     * Verifies exception for lengths that cannot form a prefix code.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void oversubscribedException() {
+        new CanonicalCode(new int[] {'a', 'b', 'c'}, new int[] {1, 1, 2});
+    }
+
+    /**
+     * Verifies exception for a repeated symbol.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void repeatedSymbolException() {
+        new CanonicalCode(new int[] {'a', 'a'}, new int[] {1, 1});
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Computes optimal prefix code lengths directly from integer symbol
+ * counts, without building a tree of objects. The symbols are sorted by
+ * count once, and then merged with the two-queue method: the leaves
+ * waiting to be merged form one queue in sorted order and the merged
+ * internal nodes form a second queue, which is created in nondecreasing
+ * order of weight, so the two lightest nodes are always at the front of
+ * the queues and each merge takes constant time.
+ * <p>
+ * When a leaf and an internal node have the same weight, the leaf is
+ * merged first, and leaves of equal count are merged in order of symbol.
+ * This makes the lengths deterministic and, among optimal codes, keeps the
+ * longest code as short as possible.
+ * </p>
+ * <p>
+ * {@link #computeLimited(long[], int)} computes optimal lengths subject to
+ * a maximum length with the package-merge algorithm, for decoders whose
+ * tables or bit buffers bound the code length.
+ * </p>
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public final class CodeLengths {
+
+    /** Runs shorter than this are sorted by insertion. */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /** Not instantiable. */
+    private CodeLengths() {
+    }
+
+    /**
+     * Computes Huffman code lengths for a histogram. Symbols with a count
+     * of 0 get length 0. A lone symbol gets length 1, so that it can still
+     * be encoded in a nonempty bit string.
+     * @param counts the number of occurrences of each symbol, indexed by
+     *               symbol; their sum must not exceed Long.MAX_VALUE
+     * @return the code length of each symbol, indexed by symbol
+     * @throws IllegalArgumentException if a count is negative
+     */
+    public static int[] compute(final long[] counts)
+            throws IllegalArgumentException {
+        int[] symbols = sortedSymbols(counts);
+        int[] lengths = new int[counts.length];
+        int m = symbols.length;
+        if (m == 1) {
+            lengths[symbols[0]] = 1;
+        }
+        if (m <= 1) {
+            return lengths;
+        }
+        long[] weights = new long[m - 1];
+        int[] parents = new int[m - 1];
+        int[] leafParents = new int[m];
+        int leaf = 0;
+        int node = 0;
+        for (int built = 0; built < m - 1; built++) {
+            long weight = 0;
+            for (int pick = 0; pick < 2; pick++) {
+                if (leaf < m && (node == built
+                        || counts[symbols[leaf]] <= weights[node])) {
+                    weight += counts[symbols[leaf]];
+                    leafParents[leaf++] = built;
+                } else {
+                    weight += weights[node];
+                    parents[node++] = built;
+                }
+            }
+            weights[built] = weight;
+        }
+        // Each parent is built after its children, so depths can be
+        // assigned from the root down, overwriting the parent array.
+        int[] depths = parents;
+        depths[m - 2] = 0;
+        for (int i = m - 3; i >= 0; i--) {
+            depths[i] = depths[parents[i]] + 1;
+        }
+        for (int i = 0; i < m; i++) {
+            lengths[symbols[i]] = depths[leafParents[i]] + 1;
+        }
+        return lengths;
+    }
+
+    /**
+     * Computes optimal code lengths for a histogram subject to a maximum
+     * code length, using the package-merge algorithm. If the Huffman code
+     * lengths are already within the limit they are returned unchanged.
+     * <p>
+     * Package-merge works on one list per allowed length, deepest first.
+     * The deepest list holds the symbols sorted by count. Each shallower
+     * list merges the symbols with packages made by pairing consecutive
+     * items of the list below, whose weight is the sum of the pair. The
+     * first 2m - 2 items of the shallowest list, for m symbols, form the
+     * optimal solution: each symbol's length is the number of lists in
+     * which it is selected, directly or inside a selected package. Since
+     * every list is a merge of two sorted sequences, only the number of
+     * symbols among each selected prefix is needed, and it is found by
+     * walking back down from the shallowest list.
+     * </p>
+     * @param counts the number of occurrences of each symbol, indexed by
+     *               symbol; a package weight counts a symbol once for each
+     *               list it is packaged through, so their sum times
+     *               maxLength should not exceed Long.MAX_VALUE
+     * @param maxLength the maximum code length, at least 1
+     * @return the code length of each symbol, indexed by symbol
+     * @throws IllegalArgumentException if a count is negative, there are
+     *         more symbols that occur than codes of maxLength bits, or a
+     *         package weight overflows a long
+     */
+    public static int[] computeLimited(final long[] counts,
+                                       final int maxLength)
+            throws IllegalArgumentException {
+        if (maxLength < 1) {
+            throw new IllegalArgumentException("Maximum length too small.");
+        }
+        int[] lengths = compute(counts);
+        if (maxLength(lengths) <= maxLength) {
+            return lengths;
+        }
+        int[] symbols = sortedSymbols(counts);
+        int m = symbols.length;
+        if (maxLength < Long.SIZE - 1 && m > (1L << maxLength)) {
+            throw new IllegalArgumentException("Maximum length too small.");
+        }
+        // leafFlags[level][i] tells whether item i of the list for codes of
+        // length level + 1 is a symbol rather than a package.
+        boolean[][] leafFlags = new boolean[maxLength][];
+        long[] previous = new long[0];
+        for (int level = maxLength - 1; level >= 0; level--) {
+            int packages = previous.length / 2;
+            long[] items = new long[m + packages];
+            boolean[] flags = new boolean[m + packages];
+            int leaf = 0;
+            int pack = 0;
+            for (int i = 0; i < items.length; i++) {
+                long packageWeight = 0;
+                if (pack < packages) {
+                    packageWeight = packageWeight(previous[2 * pack],
+                            previous[2 * pack + 1]);
+                }
+                if (leaf < m && (pack == packages
+                        || counts[symbols[leaf]] <= packageWeight)) {
+                    items[i] = counts[symbols[leaf++]];
+                    flags[i] = true;
+                } else {
+                    items[i] = packageWeight;
+                    pack++;
+                }
+            }
+            leafFlags[level] = flags;
+            previous = items;
+        }
+        lengths = new int[counts.length];
+        int selected = 2 * m - 2;
+        for (int level = 0; level < maxLength && selected > 0; level++) {
+            boolean[] flags = leafFlags[level];
+            int leaves = 0;
+            for (int i = 0; i < selected; i++) {
+                if (flags[i]) {
+                    lengths[symbols[leaves++]]++;
+                }
+            }
+            selected = 2 * (selected - leaves);
+        }
+        return lengths;
+    }
+
+    /**
+     * Sums the weights of a pair of items into a package.
+     * @param first the weight of the first item
+     * @param second the weight of the second item
+     * @return the weight of the package
+     * @throws IllegalArgumentException if the sum overflows a long
+     */
+    private static long packageWeight(final long first, final long second)
+            throws IllegalArgumentException {
+        try {
+            return Math.addExact(first, second);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Counts too large.", ex);
+        }
+    }
+
+    /**
+     * Returns the length of the longest code.
+     * @param lengths code lengths indexed by symbol
+     * @return the largest length; 0 if there are none
+     */
+    public static int maxLength(final int[] lengths) {
+        int max = 0;
+        for (int length : lengths) {
+            max = Math.max(max, length);
+        }
+        return max;
+    }
+
+    /**
+     * Lists the symbols with a positive count, ordered by count and then
+     * by symbol.
+     * @param counts the number of occurrences of each symbol
+     * @return the symbols that occur, in merge order
+     * @throws IllegalArgumentException if a count is negative
+     */
+    private static int[] sortedSymbols(final long[] counts)
+            throws IllegalArgumentException {
+        int m = 0;
+        for (long count : counts) {
+            if (count < 0) {
+                throw new IllegalArgumentException("Negative count.");
+            }
+            if (count > 0) {
+                m++;
+            }
+        }
+        int[] symbols = new int[m];
+        int i = 0;
+        for (int symbol = 0; symbol < counts.length; symbol++) {
+            if (counts[symbol] > 0) {
+                symbols[i++] = symbol;
+            }
+        }
+        sort(symbols, new int[m], 0, m, counts);
+        return symbols;
+    }
+
+    /**
+     * Stable merge sort of a range of symbols by count. Since the symbols
+     * start in increasing order, equal counts stay in order of symbol.
+     * @param symbols the symbols to sort
+     * @param scratch working space at least as long as symbols
+     * @param from the first index of the range
+     * @param to the index just past the range
+     * @param counts the count of each symbol
+     */
+    private static void sort(final int[] symbols,
+                             final int[] scratch,
+                             final int from,
+                             final int to,
+                             final long[] counts) {
+        if (to - from < INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int symbol = symbols[i];
+                int j = i;
+                while (j > from && counts[symbols[j - 1]] > counts[symbol]) {
+                    symbols[j] = symbols[j - 1];
+                    j--;
+                }
+                symbols[j] = symbol;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(symbols, scratch, from, mid, counts);
+        sort(symbols, scratch, mid, to, counts);
+        if (counts[symbols[mid - 1]] <= counts[symbols[mid]]) {
+            return;
+        }
+        System.arraycopy(symbols, from, scratch, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid
+                    && counts[scratch[left]] <= counts[scratch[right]])) {
+                symbols[i] = scratch[left++];
+            } else {
+                symbols[i] = scratch[right++];
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Tests for CodeLengths.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class CodeLengthsTest {
+
+    /**
+     * Computes the cost of an optimal code, the sum of the weights of all
+     * merged nodes, with a priority queue.
+     * @param counts the symbol counts
+     * @return the number of bits in the optimal encoding
+     */
+    private static long optimalCost(final long[] counts) {
+        PriorityQueue<Long> queue = new PriorityQueue<>();
+        for (long count : counts) {
+            if (count > 0) {
+                queue.add(count);
+            }
+        }
+        long cost = 0;
+        while (queue.size() > 1) {
+            long merged = queue.poll() + queue.poll();
+            cost += merged;
+            queue.add(merged);
+        }
+        return cost;
+    }
+
+    /**
+     * Computes the number of bits used to encode all symbols.
+     * @param counts the symbol counts
+     * @param lengths the code lengths
+     * @return the sum of count times length
+     */
+    private static long cost(final long[] counts, final int[] lengths) {
+        long cost = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cost += counts[i] * lengths[i];
+        }
+        return cost;
+    }
+
+    /**
+     * Computes the Kraft sum of the lengths scaled by 2 to the maximum
+     * length; equal to that power of 2 for a complete code.
+     * @param lengths the code lengths
+     * @return the scaled Kraft sum
+     */
+    private static long scaledKraftSum(final int[] lengths) {
+        int max = CodeLengths.maxLength(lengths);
+        long sum = 0;
+        for (int length : lengths) {
+            if (length > 0) {
+                sum += 1L << (max - length);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Verifies lengths for the counts of "roadrunner".
+     */
+    @Test
+    public void roadrunnerTest() {
+        long[] counts = new long['u' + 1];
+        for (char c : "roadrunner".toCharArray()) {
+            counts[c]++;
+        }
+        int[] lengths = CodeLengths.compute(counts);
+        assertEquals(optimalCost(counts), cost(counts, lengths));
+        assertEquals(2, lengths['r']);
+        assertEquals(0, lengths['b']);
+        assertEquals(1L << CodeLengths.maxLength(lengths),
+                scaledKraftSum(lengths));
+    }
+
+    /**
+     * Verifies lengths for empty and single-symbol histograms.
+     */
+    @Test
+    public void smallAlphabetTest() {
+        assertArrayEquals(new int[3], CodeLengths.compute(new long[3]));
+        assertArrayEquals(new int[] {0, 1, 0},
+                CodeLengths.compute(new long[] {0, 5, 0}));
+        assertArrayEquals(new int[] {1, 1},
+                CodeLengths.compute(new long[] {7, 1}));
+    }
+
+    /**
+     * Verifies that equal counts give equal lengths.
+     */
+    @Test
+    public void uniformTest() {
+        long[] counts = new long[256];
+        Arrays.fill(counts, 3);
+        int[] lengths = CodeLengths.compute(counts);
+        for (int length : lengths) {
+            assertEquals(8, length);
+        }
+    }
+
+    /**
+     * Verifies optimality and completeness over a full char alphabet.
+     */
+    @Test
+    public void largeAlphabetTest() {
+        Random random = new Random(15);
+        long[] counts = new long[HuffmanCode.ALPHABET_SIZE];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1000);
+        }
+        int[] lengths = CodeLengths.compute(counts);
+        assertEquals(optimalCost(counts), cost(counts, lengths));
+        assertEquals(1L << CodeLengths.maxLength(lengths),
+                scaledKraftSum(lengths));
+    }
+
+    /**
+     * Verifies optimality for Fibonacci counts, which give the longest
+     * codes.
+     */
+    @Test
+    public void fibonacciTest() {
+        long[] counts = new long[40];
+        counts[0] = 1;
+        counts[1] = 1;
+        for (int i = 2; i < counts.length; i++) {
+            counts[i] = counts[i - 1] + counts[i - 2];
+        }
+        int[] lengths = CodeLengths.compute(counts);
+        assertEquals(optimalCost(counts), cost(counts, lengths));
+        assertEquals(counts.length - 1, CodeLengths.maxLength(lengths));
+    }
+
+    /**
+     * Finds the cost of the best code with lengths from 1 to maxLength by
+     * trying every length vector.
+     * @param counts the symbol counts, all positive
+     * @param maxLength the maximum code length
+     * @return the smallest cost of a prefix code within the limit
+     */
+    private static long bruteForceCost(final long[] counts,
+                                       final int maxLength) {
+        int[] lengths = new int[counts.length];
+        Arrays.fill(lengths, 1);
+        long best = Long.MAX_VALUE;
+        while (true) {
+            long kraft = 0;
+            for (int length : lengths) {
+                kraft += 1L << (maxLength - length);
+            }
+            if (kraft <= 1L << maxLength) {
+                best = Math.min(best, cost(counts, lengths));
+            }
+            int i = 0;
+            while (i < lengths.length && lengths[i] == maxLength) {
+                lengths[i++] = 1;
+            }
+            if (i == lengths.length) {
+                return best;
+            }
+            lengths[i]++;
+        }
+    }
+
+    /**
+     * Verifies limited lengths are optimal for small random histograms.
+     */
+    @Test
+    public void limitedOptimalTest() {
+        Random random = new Random(16);
+        for (int trial = 0; trial < 20; trial++) {
+            long[] counts = new long[7];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = 1L << random.nextInt(12);
+            }
+            int[] lengths = CodeLengths.computeLimited(counts, 3);
+            assertTrue(CodeLengths.maxLength(lengths) <= 3);
+            assertEquals(bruteForceCost(counts, 3), cost(counts, lengths));
+        }
+    }
+
+    /**
+     * Verifies limited lengths for Fibonacci counts form a complete code
+     * within the limit, and are unchanged when the limit is not binding.
+     */
+    @Test
+    public void limitedFibonacciTest() {
+        long[] counts = new long[40];
+        counts[0] = 1;
+        counts[1] = 1;
+        for (int i = 2; i < counts.length; i++) {
+            counts[i] = counts[i - 1] + counts[i - 2];
+        }
+        int[] lengths = CodeLengths.computeLimited(counts, 15);
+        assertEquals(15, CodeLengths.maxLength(lengths));
+        assertEquals(1L << 15, scaledKraftSum(lengths));
+        assertTrue(cost(counts, lengths) >= optimalCost(counts));
+        assertArrayEquals(CodeLengths.compute(counts),
+                CodeLengths.computeLimited(counts, counts.length));
+        lengths = CodeLengths.computeLimited(new long[] {1, 1, 1, 1}, 2);
+        assertArrayEquals(new int[] {2, 2, 2, 2}, lengths);
+    }
+
+    /**
+     * Verifies exception for a limit too short for the alphabet.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void limitTooSmallException() {
+        long[] counts = {1, 2, 4, 8, 16};
+        CodeLengths.computeLimited(counts, 2);
+    }
+
+    /**
+     * Verifies exception for counts whose sum fits in a long but whose
+     * package weights, which count symbols once per list, do not.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void packageOverflowException() {
+        long[] counts = new long[40];
+        counts[0] = 1;
+        counts[1] = 1;
+        for (int i = 2; i < counts.length; i++) {
+            counts[i] = counts[i - 1] + counts[i - 2];
+        }
+        long sum = Arrays.stream(counts).sum();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] *= Long.MAX_VALUE / 3 * 2 / sum;
+        }
+        CodeLengths.computeLimited(counts, 15);
+    }
+
+    /**
+     * Verifies exception for a negative count.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void negativeCountException() {
+        CodeLengths.compute(new long[] {1, -1});
+    }
+}
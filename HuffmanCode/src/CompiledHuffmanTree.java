@@ -0,0 +1,169 @@
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable, flattened form of a {@link HuffmanTree} for decoding. The
+ * nodes are numbered in preorder, with the root as node 0, and stored in
+ * two parallel arrays: the child indices of node <code>n</code> are at
+ * <code>children[2 * n]</code> (the 0 branch) and
+ * <code>children[2 * n + 1]</code> (the 1 branch), and its symbol is at
+ * <code>symbols[n]</code>. Decoding a bit is a single array read, with no
+ * boxed values or child objects to follow.
+ * <p>
+ * A leaf has {@link #LEAF} in both child slots. A missing child of an
+ * internal node is stored as {@link #NONE}; since the root is never a
+ * child, index 0 cannot otherwise appear there.
+ * </p>
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public final class CompiledHuffmanTree {
+
+    /** Index of the root node. */
+    public static final int ROOT = 0;
+
+    /** Child slot value marking a leaf. */
+    public static final int LEAF = -1;
+
+    /** Child slot value marking a missing child. */
+    public static final int NONE = 0;
+
+    /** Child indices, two per node. */
+    private final int[] children;
+    /** Symbol of each leaf; unused for internal nodes. */
+    private final char[] symbols;
+
+    /**
+     * Compiles a Huffman tree. The tree is walked iteratively, so deep
+     * trees do not exhaust the stack. The pending nodes are kept in arrays
+     * sized by the tree's cached height, since at most one right child is
+     * pending per level, plus the two children of the deepest node.
+     * @param tree the tree to compile
+     * @throws IllegalArgumentException if a leaf has no symbol
+     */
+    public CompiledHuffmanTree(final HuffmanTree tree)
+            throws IllegalArgumentException {
+        int n = tree.numberOfNodes();
+        this.children = new int[2 * n];
+        this.symbols = new char[n];
+        int capacity = Math.max(1, tree.height() + 1);
+        HuffmanTree[] trees = new HuffmanTree[capacity];
+        int[] slots = new int[capacity];
+        trees[0] = tree;
+        slots[0] = -1;
+        int size = 1;
+        int next = ROOT;
+        while (size > 0) {
+            size--;
+            HuffmanTree node = trees[size];
+            int slot = slots[size];
+            trees[size] = null;
+            int index = next++;
+            if (slot >= 0) {
+                this.children[slot] = index;
+            }
+            if (node.isLeaf()) {
+                if (node.getSymbol() == null) {
+                    throw new IllegalArgumentException("Leaf has no symbol.");
+                }
+                this.children[2 * index] = LEAF;
+                this.children[2 * index + 1] = LEAF;
+                this.symbols[index] = node.getSymbol();
+                continue;
+            }
+            if (node.getRightChild() != null) {
+                trees[size] = node.getRightChild();
+                slots[size++] = 2 * index + 1;
+            }
+            if (node.getLeftChild() != null) {
+                trees[size] = node.getLeftChild();
+                slots[size++] = 2 * index;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of nodes in this tree.
+     * @return the number of nodes
+     */
+    public int numberOfNodes() {
+        return this.symbols.length;
+    }
+
+    /**
+     * Leaf predicate.
+     * @param node the index of a node
+     * @return <code>true</code> if the node is a leaf;
+     * <code>false</code> otherwise
+     */
+    public boolean isLeaf(final int node) {
+        return this.children[2 * node] == LEAF;
+    }
+
+    /**
+     * Returns a child of an internal node.
+     * @param node the index of an internal node
+     * @param bit the branch to follow, 0 or 1
+     * @return the index of the child; NONE if there is no such child
+     */
+    public int child(final int node, final int bit) {
+        return this.children[2 * node + bit];
+    }
+
+    /**
+     * Returns the symbol of a leaf.
+     * @param node the index of a leaf
+     * @return the leaf's symbol
+     */
+    public char symbol(final int node) {
+        return this.symbols[node];
+    }
+
+    /**
+     * Decodes the bits of the given bit string starting at the specified
+     * index, passing each decoded symbol to the sink. Decoding stops at the
+     * end of the bit string; a trailing incomplete code is not consumed. If
+     * the root is a leaf, each bit decodes to its symbol.
+     * @param bits the encoded bits
+     * @param start the index of the first bit to decode
+     * @param sink the consumer of decoded symbols
+     * @return the index just past the last complete code decoded
+     * @throws IllegalArgumentException if the bits contain a pattern that
+     *         begins no code
+     */
+    public int decode(final StringOfBits bits,
+                      final int start,
+                      final IntConsumer sink)
+            throws IllegalArgumentException {
+        int end = bits.length();
+        if (isLeaf(ROOT)) {
+            for (int i = start; i < end; i++) {
+                sink.accept(this.symbols[ROOT]);
+            }
+            return end;
+        }
+        int node = ROOT;
+        int consumed = start;
+        int i = start;
+        while (i < end) {
+            int wordIndex = i / StringOfBits.WORD_SIZE;
+            long word = bits.wordAt(wordIndex);
+            int wordEnd = Math.min(end,
+                    (wordIndex + 1) * StringOfBits.WORD_SIZE);
+            for (; i < wordEnd; i++) {
+                int bit = (int) (word >>> (StringOfBits.WORD_SIZE - 1
+                        - i % StringOfBits.WORD_SIZE)) & 1;
+                node = this.children[2 * node + bit];
+                if (node == NONE) {
+                    throw new IllegalArgumentException("Invalid code.");
+                }
+                if (this.children[2 * node] == LEAF) {
+                    sink.accept(this.symbols[node]);
+                    node = ROOT;
+                    consumed = i + 1;
+                }
+            }
+        }
+        return consumed;
+    }
+}
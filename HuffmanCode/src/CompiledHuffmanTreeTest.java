@@ -0,0 +1,129 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for CompiledHuffmanTree.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class CompiledHuffmanTreeTest {
+
+    /**
+     * Generates the Huffman tree of "roadrunner": r=11, o=100, a=001,
+     * d=1011, u=1010, n=01, e=000.
+     * @return the code tree
+     */
+    private static HuffmanTree roadrunnerTree() {
+        return new HuffmanTree(1.0,
+                new HuffmanTree(0.4,
+                        new HuffmanTree(0.2,
+                                new HuffmanTree('e', 0.1, null),
+                                new HuffmanTree('a', 0.1, null)),
+                        new HuffmanTree('n', 0.2, null)),
+                new HuffmanTree(0.6,
+                        new HuffmanTree(0.3,
+                                new HuffmanTree('o', 0.1, null),
+                                new HuffmanTree(0.2,
+                                        new HuffmanTree('u', 0.1, null),
+                                        new HuffmanTree('d', 0.1, null))),
+                        new HuffmanTree('r', 0.3, null)));
+    }
+
+    /**
+     * Decodes a bit string with the given tree into a string.
+     * @param tree the compiled tree
+     * @param bits the bits to decode
+     * @return the decoded string
+     */
+    private static String decode(final CompiledHuffmanTree tree,
+                                 final StringOfBits bits) {
+        StringBuilder out = new StringBuilder();
+        tree.decode(bits, 0, symbol -> out.append((char) symbol));
+        return out.toString();
+    }
+
+    /**
+     * Verifies the flattened structure matches the tree.
+     */
+    @Test
+    public void structureTest() {
+        CompiledHuffmanTree tree = new CompiledHuffmanTree(roadrunnerTree());
+        assertEquals(13, tree.numberOfNodes());
+        assertFalse(tree.isLeaf(CompiledHuffmanTree.ROOT));
+        int node = CompiledHuffmanTree.ROOT;
+        node = tree.child(node, 1);
+        node = tree.child(node, 0);
+        node = tree.child(node, 1);
+        node = tree.child(node, 1);
+        assertTrue(tree.isLeaf(node));
+        assertEquals('d', tree.symbol(node));
+    }
+
+    /**
+     * Decodes words of "roadrunner".
+     */
+    @Test
+    public void decodeTest() {
+        CompiledHuffmanTree tree = new CompiledHuffmanTree(roadrunnerTree());
+        assertEquals("", decode(tree, new StringOfBits()));
+        assertEquals("road", decode(tree, new StringOfBits("111000011011")));
+        assertEquals("roadrunner", decode(tree,
+                new StringOfBits("111000011011111010010100011")));
+    }
+
+    /**
+     * Verifies that a trailing incomplete code is not consumed.
+     */
+    @Test
+    public void incompleteCodeTest() {
+        CompiledHuffmanTree tree = new CompiledHuffmanTree(roadrunnerTree());
+        StringBuilder out = new StringBuilder();
+        int end = tree.decode(new StringOfBits("1110"), 0,
+                symbol -> out.append((char) symbol));
+        assertEquals("r", out.toString());
+        assertEquals(2, end);
+    }
+
+    /**
+     * Decodes a code of 100 symbols whose longest codes span two words.
+     */
+    @Test
+    public void longCodeTest() {
+        final int size = 100;
+        HuffmanTree ht = new HuffmanTree((char) (size - 1), 1.0, null);
+        for (int i = size - 2; i >= 0; i--) {
+            ht = new HuffmanTree(1.0, ht, new HuffmanTree((char) i, 1.0, null));
+        }
+        CompiledHuffmanTree tree = new CompiledHuffmanTree(ht);
+        StringOfBits bits = new StringOfBits();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < Math.min(i, size - 2); j++) {
+                bits.append(0);
+            }
+            if (i < size - 1) {
+                bits.append(1);
+            } else {
+                bits.append(0);
+            }
+        }
+        String decoded = decode(tree, bits);
+        assertEquals(size, decoded.length());
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, decoded.charAt(i));
+        }
+    }
+
+    /**
+     * Verifies that a missing branch is rejected.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void missingChildException() {
+        HuffmanTree ht = new HuffmanTree(1.0,
+                new HuffmanTree('a', 1.0, null), null);
+        decode(new CompiledHuffmanTree(ht), new StringOfBits("01"));
+    }
+}
@@ -1,3 +1,5 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.PriorityQueue;
@@ -5,24 +7,122 @@ import java.util.ArrayList;
 
 /**
  * Implementation of Huffman coding. An instance of stores a code used
- * for subsequent encoding and decoding of strings.
+ * for subsequent encoding and decoding of strings. A code whose symbols are
+ * chars 0 to 255 may also encode and decode byte arrays, with each byte
+ * treated as the symbol of the same unsigned value.
+ * <p>
+ * Encoding looks up each symbol's code and length in arrays indexed by
+ * symbol and packs the codes into a 64-bit accumulator which is appended
+ * to the result a word at a time, so it neither allocates nor hashes per
+ * symbol. If a code is empty or longer than 64 bits, codes are appended
+ * from the symbol-to-code map instead.
+ * </p>
  *
  * @author Bennett Alex Myers
  * @version 17 October 2016
  */
 public class HuffmanCode {
 
+    /** Number of distinct char symbols; the size of a full histogram. */
+    public static final int ALPHABET_SIZE = Character.MAX_VALUE + 1;
+
+    /** Number of distinct byte symbols; the size of a byte histogram. */
+    public static final int BYTE_ALPHABET_SIZE = 256;
+
+    /** Mask of the bits of a byte. */
+    private static final int BYTE_MASK = 0xFF;
+
     /** The HuffmanTree corresponding to this HuffmanCode object. */
     private HuffmanTree codeTree;
     /** The symbol-to-code mapping for this HuffmanCode object. */
     private Map<Character, StringOfBits> codeTable;
+    /** Lookup tables for decoding; null if a code is too long to tabulate. */
+    private HuffmanDecodeTable decodeTable;
+    /** Flattened code tree for decoding codes too long to tabulate. */
+    private CompiledHuffmanTree compiledTree;
+    /** The canonical form of this code; null unless built from one. */
+    private CanonicalCode canonicalCode;
+    /** Arrays for encoding; null until first use. */
+    private volatile EncodeTables encodeTables;
 
     /**
      * Creates a Huffman code for a given seed string.
      * @param seed the string from which the code is generated
      */
     public HuffmanCode(final String seed) {
-        this(getFrequencyTable(seed));
+        this(countSymbols(seed));
+    }
+
+    /**
+     * Creates a Huffman code over byte symbols for a given seed.
+     * @param seed the bytes from which the code is generated
+     */
+    public HuffmanCode(final byte[] seed) {
+        this(countBytes(seed));
+    }
+
+    /**
+     * Creates a Huffman code for a given histogram of symbol counts. The
+     * code lengths are computed in linear time after sorting by
+     * {@link CodeLengths}, and the code is the canonical code with those
+     * lengths. If a code would be longer than 64 bits, a code tree is
+     * built instead from the exact counts with
+     * {@link HuffmanTree#fromCounts(long[])}.
+     * @param counts the number of occurrences of each symbol, indexed by
+     *               symbol; at most ALPHABET_SIZE entries
+     * @throws IllegalArgumentException if the histogram is too long or
+     *         contains a negative count
+     */
+    public HuffmanCode(final long[] counts) throws IllegalArgumentException {
+        if (counts.length > ALPHABET_SIZE) {
+            throw new IllegalArgumentException("Histogram too long.");
+        }
+        int[] lengths = CodeLengths.compute(counts);
+        if (CodeLengths.maxLength(lengths) > CanonicalCode.MAX_CODE_LENGTH) {
+            buildFromTree(HuffmanTree.fromCounts(counts));
+        } else {
+            this.canonicalCode = CanonicalCode.fromLengths(lengths);
+            this.decodeTable = this.canonicalCode.getDecodeTable();
+        }
+    }
+
+    /**
+     * Creates a Huffman code for a given seed string whose codes are no
+     * longer than the given maximum length.
+     * @param seed the string from which the code is generated
+     * @param maxLength the maximum code length, 1 to 64
+     * @throws IllegalArgumentException if the maximum length is out of
+     *         range or too short for the number of distinct chars
+     */
+    public HuffmanCode(final String seed, final int maxLength)
+            throws IllegalArgumentException {
+        this(countSymbols(seed), maxLength);
+    }
+
+    /**
+     * Creates an optimal prefix code for a given histogram of symbol
+     * counts whose codes are no longer than the given maximum length. When
+     * the Huffman code already fits, it is used unchanged; otherwise the
+     * longest codes are shortened at a small cost in compression, keeping
+     * decode tables small.
+     * @param counts the number of occurrences of each symbol, indexed by
+     *               symbol; at most ALPHABET_SIZE entries
+     * @param maxLength the maximum code length, 1 to 64
+     * @throws IllegalArgumentException if the histogram is too long or
+     *         contains a negative count, or the maximum length is out of
+     *         range or too short for the number of symbols
+     */
+    public HuffmanCode(final long[] counts, final int maxLength)
+            throws IllegalArgumentException {
+        if (counts.length > ALPHABET_SIZE) {
+            throw new IllegalArgumentException("Histogram too long.");
+        }
+        if (maxLength > CanonicalCode.MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Maximum length too large.");
+        }
+        this.canonicalCode = CanonicalCode.fromLengths(
+                CodeLengths.computeLimited(counts, maxLength));
+        this.decodeTable = this.canonicalCode.getDecodeTable();
     }
 
     /**
@@ -30,18 +130,57 @@ public class HuffmanCode {
      * @param table the symbol frequency table from which the code is generated
      */
     public HuffmanCode(final HashMap<Character, Double> table) {
-        this.codeTree = generateCodeTree(table);
+        buildFromTable(table);
+    }
+
+    /**
+     * Builds the code tree, symbol-to-code mapping and decode tables for a
+     * given frequency table.
+     * @param table the symbol frequency table from which the code is generated
+     */
+    private void buildFromTable(final HashMap<Character, Double> table) {
+        buildFromTree(generateCodeTree(table));
+    }
+
+    /**
+     * Assigns codes in a given code tree and builds the symbol-to-code
+     * mapping and decode tables from it.
+     * @param tree the code tree of this code
+     */
+    private void buildFromTree(final HuffmanTree tree) {
+        this.codeTree = tree;
         assignCodes(this.codeTree);
         this.codeTable = generateCodeTable(this.codeTree);
+        this.decodeTable = generateDecodeTable(this.codeTable);
+        if (this.decodeTable == null) {
+            this.compiledTree = new CompiledHuffmanTree(this.codeTree);
+        }
     }
 
     /**
      * Creates a Huffman code for a given mapping of symbols to codes.
      * @param hmap the mapping from symbols to their encodings.
+     * @throws IllegalArgumentException if a code is a prefix of another
      */
-    public HuffmanCode(final Map<Character, StringOfBits> hmap) {
+    public HuffmanCode(final Map<Character, StringOfBits> hmap)
+            throws IllegalArgumentException {
         this.codeTable = hmap;
         this.codeTree = generateTreeFromTable(this.codeTable);
+        this.decodeTable = generateDecodeTable(this.codeTable);
+        if (this.decodeTable == null) {
+            this.compiledTree = new CompiledHuffmanTree(this.codeTree);
+        }
+    }
+
+    /**
+     * Creates a Huffman code from a canonical code. No tree or symbol-to-code
+     * map is built; encoding and decoding work directly from the integer
+     * codes and lengths of the canonical code.
+     * @param canonical the canonical code
+     */
+    public HuffmanCode(final CanonicalCode canonical) {
+        this.canonicalCode = canonical;
+        this.decodeTable = canonical.getDecodeTable();
     }
 
     /**
@@ -50,9 +189,98 @@ public class HuffmanCode {
      * @return the compressed encoding of the parameter
      */
     public StringOfBits encode(final String inputString) {
-        StringOfBits code = new StringOfBits();
-        inputString.chars().forEach(c -> code.append(codeTable.get((char) c)));
-        return code;
+        EncodeTables tables = getEncodeTables();
+        if (tables.lengths == null) {
+            StringOfBits code = new StringOfBits();
+            for (int i = 0; i < inputString.length(); i++) {
+                code.append(mappedCode(inputString.charAt(i)));
+            }
+            return code;
+        }
+        BitAccumulator code = new BitAccumulator();
+        for (int i = 0; i < inputString.length(); i++) {
+            encodeSymbol(tables, inputString.charAt(i), code);
+        }
+        return code.finish();
+    }
+
+    /**
+     * Encodes a byte array using the Huffman code of this object. Each byte
+     * is encoded as the symbol with its unsigned value.
+     * @param data the bytes to be encoded
+     * @return the compressed encoding of the parameter
+     * @throws IllegalArgumentException if a byte is not a symbol of this
+     *         code
+     */
+    public StringOfBits encode(final byte[] data)
+            throws IllegalArgumentException {
+        EncodeTables tables = getEncodeTables();
+        if (tables.lengths == null) {
+            StringOfBits code = new StringOfBits();
+            for (byte b : data) {
+                code.append(mappedCode((char) (b & BYTE_MASK)));
+            }
+            return code;
+        }
+        BitAccumulator code = new BitAccumulator();
+        for (byte b : data) {
+            encodeSymbol(tables, b & BYTE_MASK, code);
+        }
+        return code.finish();
+    }
+
+    /**
+     * Appends the code of a symbol from the encode arrays.
+     * @param tables the encode arrays
+     * @param symbol the symbol to encode
+     * @param code the accumulator to which the code is appended
+     * @throws IllegalArgumentException if the symbol is not in this code
+     */
+    private static void encodeSymbol(final EncodeTables tables,
+            final int symbol, final BitAccumulator code)
+            throws IllegalArgumentException {
+        if (symbol >= tables.lengths.length || tables.lengths[symbol] == 0) {
+            throw new IllegalArgumentException("Symbol not in code: "
+                    + symbol);
+        }
+        code.put(tables.codes[symbol], tables.lengths[symbol]);
+    }
+
+    /**
+     * Looks up the code of a symbol in the symbol-to-code map.
+     * @param symbol the symbol to encode
+     * @return the code of the symbol
+     * @throws IllegalArgumentException if the symbol is not in this code
+     */
+    private StringOfBits mappedCode(final char symbol)
+            throws IllegalArgumentException {
+        StringOfBits bits = this.codeTable.get(symbol);
+        if (bits == null) {
+            throw new IllegalArgumentException("Symbol not in code: "
+                    + (int) symbol);
+        }
+        return bits;
+    }
+
+    /**
+     * Decodes a bit string into a byte array using the Huffman code of this
+     * object.
+     * @param encodedString the string to be decoded
+     * @return the decoded bytes
+     * @throws IllegalArgumentException if a decoded symbol is greater than
+     *         255
+     */
+    public byte[] decodeBytes(final StringOfBits encodedString)
+            throws IllegalArgumentException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        if (this.decodeTable != null) {
+            this.decodeTable.decode(encodedString, 0,
+                    symbol -> decoded.write(toByte(symbol)));
+        } else {
+            this.compiledTree.decode(encodedString, 0,
+                    symbol -> decoded.write(toByte(symbol)));
+        }
+        return decoded.toByteArray();
     }
 
     /**
@@ -61,22 +289,15 @@ public class HuffmanCode {
      * @return the decoded version of the parameter
      */
     public String decode(final StringOfBits encodedString) {
-        HuffmanTree currentBranch = codeTree;
-        String decodedString = "";
-        int i = 0;
-        while (i < encodedString.length() || currentBranch.isLeaf()) {
-            if (currentBranch.isLeaf()) {
-                decodedString += currentBranch.getSymbol();
-                currentBranch = codeTree;
-            } else if (encodedString.intAt(i) == 0) {
-                currentBranch = currentBranch.getLeftChild();
-                i++;
-            } else {
-                currentBranch = currentBranch.getRightChild();
-                i++;
-            }
+        StringBuilder decoded = new StringBuilder();
+        if (this.decodeTable != null) {
+            this.decodeTable.decode(encodedString, 0,
+                    symbol -> decoded.append((char) symbol));
+        } else {
+            this.compiledTree.decode(encodedString, 0,
+                    symbol -> decoded.append((char) symbol));
         }
-        return decodedString;
+        return decoded.toString();
     }
 
     /**
@@ -84,37 +305,122 @@ public class HuffmanCode {
      * @return this Huffman code as a map
      */
     public Map<Character, StringOfBits> getCode() {
+        if (this.codeTable == null) {
+            return this.canonicalCode.toCodeMap();
+        }
         return new HashMap<>(this.codeTable);
     }
 
     /**
-     * Generate a character frequency table for a given string.
-     * @param inputString the string from which the table is generated
-     * @return a character frequency table for the input string
+     * Returns the canonical code with the same code lengths as this code.
+     * Encoding with the canonical code compresses exactly as well as this
+     * code, and the canonical code can be stored as its lengths alone.
+     * @return the canonical form of this code
      */
-    private static HashMap<Character, Double> getFrequencyTable(
-            final String inputString) {
-        HashMap<Character, Double> freqTable = new HashMap<>();
-        countChars(inputString).forEach((symbol, count)
-                -> freqTable.put(symbol, count / inputString.length()));
-        return freqTable;
+    public CanonicalCode getCanonicalCode() {
+        if (this.canonicalCode == null) {
+            return CanonicalCode.fromCode(this.codeTable);
+        }
+        return this.canonicalCode;
     }
 
     /**
-     * Create a mapping of characters from a string to the number of times
-     * they appear in the string.
-     * @param inputString the string whose characters are counted
-     * @return a mapping from characters to counts
+     * Count the occurrences of each char of a string into a dense histogram.
+     * No objects are allocated per char.
+     * @param text the text whose chars are counted
+     * @return a histogram of ALPHABET_SIZE counts indexed by char
      */
-    private static HashMap<Character, Double> countChars(
-            final String inputString) {
-        HashMap<Character, Double> countMap = new HashMap<>();
-        inputString.chars().mapToObj(c -> (char) c)
-                           .forEach(c -> {
-                               countMap.putIfAbsent(c, 0.0);
-                               countMap.replace(c, countMap.get(c) + 1.0);
-                           });
-        return countMap;
+    public static long[] countSymbols(final CharSequence text) {
+        long[] counts = new long[ALPHABET_SIZE];
+        for (int i = 0; i < text.length(); i++) {
+            counts[text.charAt(i)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Count the occurrences of each value of a byte array into a dense
+     * histogram indexed by unsigned byte value.
+     * @param data the bytes which are counted
+     * @return a histogram of BYTE_ALPHABET_SIZE counts
+     */
+    public static long[] countBytes(final byte[] data) {
+        long[] counts = new long[BYTE_ALPHABET_SIZE];
+        for (byte b : data) {
+            counts[b & BYTE_MASK]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the encode arrays, building them on first use. Threads that
+     * race to build them build equal arrays, and each publishes them
+     * whole through the volatile field, so a shared code can be used to
+     * encode from any thread.
+     * @return the encode arrays
+     */
+    private EncodeTables getEncodeTables() {
+        EncodeTables tables = this.encodeTables;
+        if (tables == null) {
+            tables = generateEncodeTables();
+            this.encodeTables = tables;
+        }
+        return tables;
+    }
+
+    /**
+     * Fill the code and length arrays, indexed by symbol up to the largest
+     * symbol of this code, used to encode. The arrays are not built if a
+     * code is empty, as for a tree of one leaf, or longer than 64 bits.
+     * @return the encode arrays, or {@link EncodeTables#MAPPED} if the
+     * symbol-to-code map must be used instead
+     */
+    private EncodeTables generateEncodeTables() {
+        if (this.canonicalCode != null) {
+            int[] symbols = this.canonicalCode.getSymbols();
+            int size = 0;
+            for (int symbol : symbols) {
+                size = Math.max(size, symbol + 1);
+            }
+            byte[] lengths = new byte[size];
+            long[] codes = new long[size];
+            for (int symbol : symbols) {
+                lengths[symbol] = (byte) this.canonicalCode.getLength(symbol);
+                codes[symbol] = this.canonicalCode.getCode(symbol);
+            }
+            return new EncodeTables(lengths, codes);
+        }
+        int size = 0;
+        for (Map.Entry<Character, StringOfBits> entry
+                : this.codeTable.entrySet()) {
+            int length = entry.getValue().length();
+            if (length == 0 || length > StringOfBits.WORD_SIZE) {
+                return EncodeTables.MAPPED;
+            }
+            size = Math.max(size, entry.getKey() + 1);
+        }
+        byte[] lengths = new byte[size];
+        long[] codes = new long[size];
+        this.codeTable.forEach((symbol, bits) -> {
+            lengths[symbol] = (byte) bits.length();
+            codes[symbol] = bits.bitsAt(0, bits.length());
+        });
+        return new EncodeTables(lengths, codes);
+    }
+
+    /**
+     * Utility method to convert a decoded symbol to a byte.
+     * @param symbol the symbol to be converted
+     * @return the symbol as an int from 0 to 255
+     * @throws IllegalArgumentException if the symbol is greater than 255
+     */
+    private static int toByte(final int symbol)
+            throws IllegalArgumentException {
+        if (symbol > BYTE_MASK) {
+            throw new IllegalArgumentException("Symbol is not a byte: "
+                    + symbol);
+        }
+        return symbol;
     }
 
     /**
@@ -216,63 +522,136 @@ public class HuffmanCode {
     }
 
     /**
-     * Generate a HuffmanTree based on a symbol-to-code mapping.
+     * Generate lookup tables for decoding with a given code.
      * @param code a mapping of symbols to codes
-     * @return a HuffmanTree whose structure reflects the given code
+     * @return the decode table for the code; null if some code is longer
+     *         than a decode table supports
      */
-    private static HuffmanTree generateTreeFromTable(
+    private static HuffmanDecodeTable generateDecodeTable(
             final Map<Character, StringOfBits> code) {
-        return generateTreeFromTableInner(getInverseCodeMap(code), "");
-    }
-
-    /**
-     * Generate a HuffmanTree based on a mapping of codes (string
-     * representations of bit strings) to symbols.
-     * @param inverseMap a mapping of bit strings to characters
-     * @param currentCode the bit string corresponding to the current location
-     *                    in the recursive structure of the tree being
-     *                    constructed.
-     * @return a HuffmanTree whose structure reflects the given mapping of codes
-     *         to symbols.
-     */
-    private static HuffmanTree generateTreeFromTableInner(
-            final Map<String, Character> inverseMap,
-            final String currentCode) {
-        Character symbol = inverseMap.getOrDefault(currentCode, null);
-        if (symbol != null) {
-            return new HuffmanTree(symbol, null,
-                    new StringOfBits(currentCode), null, null);
-        } else {
-            return new HuffmanTree(null, null, new StringOfBits(currentCode),
-                    generateTreeFromTableInner(inverseMap, currentCode + "0"),
-                    generateTreeFromTableInner(inverseMap, currentCode + "1"));
+        for (StringOfBits bits : code.values()) {
+            if (bits.length() > HuffmanDecodeTable.MAX_CODE_LENGTH) {
+                return null;
+            }
         }
+        return HuffmanDecodeTable.fromCode(code);
+    }
+
+    /**
+     * Generate a HuffmanTree based on a symbol-to-code mapping. Each code
+     * is inserted by following its bits from the root, adding the internal
+     * nodes on its path that do not exist yet, so the time is proportional
+     * to the total length of the codes. Each node stores the code of the
+     * path to it.
+     * @param code a mapping of symbols to codes
+     * @return a HuffmanTree whose structure reflects the given code
+     * @throws IllegalArgumentException if a code is a prefix of another
+     */
+    private static HuffmanTree generateTreeFromTable(
+            final Map<Character, StringOfBits> code)
+            throws IllegalArgumentException {
+        HuffmanTree root = new HuffmanTree(null, null, new StringOfBits(),
+                null, null);
+        code.forEach((symbol, bits) -> {
+            HuffmanTree node = root;
+            for (int i = 0; i < bits.length(); i++) {
+                if (node.getSymbol() != null) {
+                    throw new IllegalArgumentException("Not a prefix code.");
+                }
+                HuffmanTree child;
+                if (bits.intAt(i) == 0) {
+                    child = node.getLeftChild();
+                } else {
+                    child = node.getRightChild();
+                }
+                if (child == null) {
+                    child = new HuffmanTree(null, null,
+                            bits.subBits(0, i + 1), null, null);
+                    if (bits.intAt(i) == 0) {
+                        node.setLeftChild(child);
+                    } else {
+                        node.setRightChild(child);
+                    }
+                }
+                node = child;
+            }
+            if (node.getSymbol() != null || !node.isLeaf()) {
+                throw new IllegalArgumentException("Not a prefix code.");
+            }
+            node.setSymbol(symbol);
+        });
+        return root;
     }
 
     /**
-     * Return the inverse of the given symbol-to-code mapping as a mapping of
-     * string representations of code to symbols.
-     * @param codeMap the mapping whose inverse to retrieve
-     * @return the code-to-symbol mapping that is the inverse of the parameter
+     * The arrays used to encode, indexed by symbol. The arrays are never
+     * modified once built.
      */
-    private static HashMap<String, Character> getInverseCodeMap(
-            final Map<Character, StringOfBits> codeMap) {
-        HashMap<String, Character> inverseMap = new HashMap<>();
-        codeMap.forEach((symbol, code)
-                -> inverseMap.put(makeBitString(code), symbol));
-        return inverseMap;
+    private static final class EncodeTables {
+
+        /** Marks a code that must be encoded from the symbol-to-code map. */
+        private static final EncodeTables MAPPED =
+                new EncodeTables(null, null);
+
+        /** Code length indexed by symbol; 0 if absent. */
+        private final byte[] lengths;
+        /** Code indexed by symbol, right-aligned. */
+        private final long[] codes;
+
+        /**
+         * Creates the encode arrays.
+         * @param lengths the code lengths, or null to use the map
+         * @param codes the codes, or null to use the map
+         */
+        private EncodeTables(final byte[] lengths, final long[] codes) {
+            this.lengths = lengths;
+            this.codes = codes;
+        }
     }
 
     /**
-     * Convert a StringOfBits to a String of its bit string.
-     * @param bits the StringOfBits to be converted
-     * @return the string representation of the bit string
+     * Packs codes into 64-bit words and appends each full word to a bit
+     * string, so that most codes cost a shift and an or.
      */
-    private static String makeBitString(final StringOfBits bits) {
-        String bitString = "";
-        for (int i = 0; i < bits.length(); i++) {
-            bitString += bits.charAt(i);
+    private static final class BitAccumulator {
+
+        /** The bits of all full words so far. */
+        private final StringOfBits bits = new StringOfBits();
+        /** Bits not yet appended, right-aligned. */
+        private long word;
+        /** Number of bits in word; always less than 64. */
+        private int count;
+
+        /**
+         * Appends a code.
+         * @param code the code, right-aligned
+         * @param length the length of the code, 1 to 64
+         */
+        void put(final long code, final int length) {
+            if (this.count + length < StringOfBits.WORD_SIZE) {
+                this.word = (this.word << length) | code;
+                this.count += length;
+                return;
+            }
+            int room = StringOfBits.WORD_SIZE - this.count;
+            int spill = length - room;
+            if (room == StringOfBits.WORD_SIZE) {
+                this.bits.append(code, StringOfBits.WORD_SIZE);
+            } else {
+                this.bits.append((this.word << room) | (code >>> spill),
+                        StringOfBits.WORD_SIZE);
+            }
+            this.word = code & ((1L << spill) - 1);
+            this.count = spill;
+        }
+
+        /**
+         * Appends the remaining bits.
+         * @return the bit string of all codes appended
+         */
+        StringOfBits finish() {
+            this.bits.append(this.word, this.count);
+            return this.bits;
         }
-        return bitString;
     }
 }
@@ -3,8 +3,15 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Tests for HuffmanCode.
@@ -134,5 +141,188 @@ public class HuffmanCodeTest {
         MAP.forEach((symbol, code) ->
                 assertEquals(MAP.get(symbol), codeFromMap.get(symbol)));
     }
-}
 
+    /**
+     * Tests for the dense histogram and the Huffman code built from it.
+     */
+    @Test
+    public void countsDecodeEncodeTest() {
+        long[] counts = HuffmanCode.countSymbols(SEED);
+        assertEquals(counts.length, HuffmanCode.ALPHABET_SIZE);
+        assertEquals(counts['r'], 3);
+        assertEquals(counts['n'], 2);
+        assertEquals(counts['z'], 0);
+        HuffmanCode hc = new HuffmanCode(counts);
+        Map<Character, StringOfBits> code = hc.getCode();
+        assertEquals(code.size(), TABLE.size());
+        String[] words = {"", "unordered", "rodeo", "neuron"};
+        for (String word : words) {
+            assertEquals(hc.decode(hc.encode(word)), word);
+        }
+    }
+
+    /**
+     * Verifies exception for a negative count.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void negativeCountException() {
+        new HuffmanCode(new long[] {1, -1, 2});
+    }
+
+    /**
+     * Tests for encoding and decoding arbitrary bytes.
+     */
+    @Test
+    public void byteDecodeEncodeTest() {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * i % 251 - 128);
+        }
+        HuffmanCode hc = new HuffmanCode(data);
+        StringOfBits encoded = hc.encode(data);
+        assertTrue(Arrays.equals(hc.decodeBytes(encoded), data));
+        HuffmanCode canonical = new HuffmanCode(hc.getCanonicalCode());
+        encoded = canonical.encode(data);
+        assertTrue(Arrays.equals(canonical.decodeBytes(encoded), data));
+        assertEquals(hc.decodeBytes(hc.encode(new byte[0])).length, 0);
+    }
+
+    /**
+     * Verifies exception for a byte not in the code.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void byteNotInCodeException() {
+        new HuffmanCode(new byte[] {1, 2, 3}).encode(new byte[] {4});
+    }
+
+    /**
+     * Verifies exception for decoding a symbol that is not a byte.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void symbolNotByteException() {
+        HuffmanCode hc = new HuffmanCode("\u0100\u0101");
+        hc.decodeBytes(hc.encode("\u0100"));
+    }
+
+    /**
+     * Tests a code whose longest codes exceed 64 bits, which are decoded
+     * with the compiled code tree rather than lookup tables.
+     */
+    @Test
+    public void longCodeDecodeEncodeTest() {
+        final int size = 72;
+        Map<Character, StringOfBits> code = new HashMap<>();
+        StringOfBits prefix = new StringOfBits();
+        for (int i = 0; i < size - 1; i++) {
+            code.put((char) ('0' + i), new StringOfBits(prefix).append(1));
+            prefix.append(0);
+        }
+        code.put((char) ('0' + size - 1), prefix);
+        HuffmanCode hc = new HuffmanCode(code);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append((char) ('0' + (i * 7) % size));
+        }
+        String input = sb.toString();
+        assertEquals(input, hc.decode(hc.encode(input)));
+    }
+
+    /**
+     * Tests a code built with a maximum code length.
+     */
+    @Test
+    public void limitedDecodeEncodeTest() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 1 << i; j++) {
+                sb.append((char) ('a' + i));
+            }
+        }
+        String input = sb.toString();
+        assertEquals(19, new HuffmanCode(input).getCode().get('a').length());
+        HuffmanCode hc = new HuffmanCode(input, 8);
+        for (StringOfBits code : hc.getCode().values()) {
+            assertTrue(code.length() <= 8);
+        }
+        assertEquals(input, hc.decode(hc.encode(input)));
+    }
+
+    /**
+     * Verifies that packing codes of up to 64 bits into words gives the
+     * concatenation of the codes.
+     */
+    @Test
+    public void packedEncodeTest() {
+        final int size = 65;
+        Map<Character, StringOfBits> code = new HashMap<>();
+        StringOfBits prefix = new StringOfBits();
+        for (int i = 0; i < size - 1; i++) {
+            code.put((char) ('0' + i), new StringOfBits(prefix).append(1));
+            prefix.append(0);
+        }
+        code.put((char) ('0' + size - 1), prefix);
+        HuffmanCode hc = new HuffmanCode(code);
+        StringBuilder sb = new StringBuilder();
+        StringOfBits expected = new StringOfBits();
+        for (int i = 0; i < 3 * size; i++) {
+            char c = (char) ('0' + (i * 11) % size);
+            sb.append(c);
+            expected.append(code.get(c));
+        }
+        String input = sb.toString();
+        assertEquals(expected.toString(), hc.encode(input).toString());
+        assertEquals(input, hc.decode(hc.encode(input)));
+    }
+
+    /**
+     * Verifies that threads sharing a new code, and so racing to build its
+     * encode arrays, all encode correctly.
+     * @throws Exception if a thread is interrupted or fails
+     */
+    @Test
+    public void concurrentEncodeTest() throws Exception {
+        final int threads = 4;
+        final int rounds = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                HuffmanCode hc = new HuffmanCode(SEED);
+                String expected = new HuffmanCode(SEED).encode(SEED)
+                        .toString();
+                CyclicBarrier start = new CyclicBarrier(threads);
+                List<Future<String>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return hc.encode(SEED).toString();
+                    }));
+                }
+                for (Future<String> result : results) {
+                    assertEquals(expected, result.get());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifies exception for a char not in the code.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void charNotInCodeException() {
+        new HuffmanCode(SEED).encode("z");
+    }
+
+    /**
+     * Verifies exception for a symbol-to-code map that is not a prefix
+     * code.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void notPrefixCodeException() {
+        Map<Character, StringOfBits> code = new HashMap<>();
+        code.put('a', new StringOfBits("1"));
+        code.put('b', new StringOfBits("10"));
+        new HuffmanCode(code);
+    }
+}
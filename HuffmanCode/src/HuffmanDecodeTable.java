@@ -0,0 +1,314 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * A lookup-table decoder for a prefix code. Rather than walking a tree one
+ * bit at a time, the decoder reads up to {@link #PRIMARY_BITS} bits at once
+ * and resolves them through a primary table. Codes longer than the primary
+ * table width continue through chained sub-tables of up to
+ * {@link #SUB_BITS} bits each.
+ * <p>
+ * Each table entry is an int. Zero marks a bit pattern that begins no valid
+ * code. A positive entry is a leaf holding the symbol in its upper bits and
+ * the number of bits consumed at this level in its low byte. A negative
+ * entry links to a sub-table, holding the sub-table index and width.
+ * </p>
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class HuffmanDecodeTable {
+
+    /** Width in bits of the primary lookup table. */
+    public static final int PRIMARY_BITS = 10;
+
+    /** Maximum width in bits of each overflow sub-table. */
+    public static final int SUB_BITS = 8;
+
+    /** Longest code length that can be stored in the table. */
+    public static final int MAX_CODE_LENGTH = StringOfBits.WORD_SIZE;
+
+    /** Largest symbol value that fits in a table entry. */
+    public static final int MAX_SYMBOL = (1 << 23) - 1;
+
+    /** Shift separating the symbol or table index from the bit count. */
+    private static final int ENTRY_SHIFT = 8;
+
+    /** Mask extracting the bit count from an entry. */
+    private static final int ENTRY_MASK = (1 << ENTRY_SHIFT) - 1;
+
+    /** The primary table followed by all sub-tables. */
+    private final int[][] tables;
+
+    /** The width in bits of the primary table. */
+    private final int primaryWidth;
+
+    /** The length of the longest code. */
+    private final int maxLength;
+
+    /**
+     * Builds a decode table for the given code. Codes of length 0 are
+     * ignored since they occupy no bits in an encoded string.
+     * @param symbols the symbols of the code
+     * @param codes the code of each symbol, right-aligned
+     * @param lengths the length in bits of each code
+     * @throws IllegalArgumentException if the arrays differ in length, a
+     *         symbol is negative or greater than MAX_SYMBOL, a length
+     *         exceeds MAX_CODE_LENGTH, or two codes collide
+     */
+    public HuffmanDecodeTable(final int[] symbols,
+                              final long[] codes,
+                              final int[] lengths)
+            throws IllegalArgumentException {
+        if (symbols.length != codes.length
+                || symbols.length != lengths.length) {
+            throw new IllegalArgumentException("Array lengths differ.");
+        }
+        List<Integer> entries = new ArrayList<>();
+        int maxLength = 0;
+        for (int i = 0; i < symbols.length; i++) {
+            if (symbols[i] < 0 || symbols[i] > MAX_SYMBOL) {
+                throw new IllegalArgumentException("Symbol out of range.");
+            }
+            if (lengths[i] < 0 || lengths[i] > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Code length too long.");
+            }
+            if (lengths[i] > 0) {
+                entries.add(i);
+                maxLength = Math.max(maxLength, lengths[i]);
+            }
+        }
+        this.maxLength = maxLength;
+        this.primaryWidth = Math.max(1, Math.min(PRIMARY_BITS, maxLength));
+        List<int[]> tableList = new ArrayList<>();
+        buildTable(tableList, entries, symbols, codes, lengths,
+                0, this.primaryWidth);
+        this.tables = tableList.toArray(new int[tableList.size()][]);
+    }
+
+    /**
+     * Builds a decode table for a symbol-to-code mapping.
+     * @param code a mapping of symbols to codes
+     * @return a decode table for the code
+     * @throws IllegalArgumentException if a code exceeds MAX_CODE_LENGTH
+     *         bits or two codes collide
+     */
+    public static HuffmanDecodeTable fromCode(
+            final Map<Character, StringOfBits> code)
+            throws IllegalArgumentException {
+        int[] symbols = new int[code.size()];
+        long[] codes = new long[code.size()];
+        int[] lengths = new int[code.size()];
+        int i = 0;
+        for (Map.Entry<Character, StringOfBits> e : code.entrySet()) {
+            StringOfBits bits = e.getValue();
+            if (bits.length() > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Code length too long.");
+            }
+            symbols[i] = e.getKey();
+            codes[i] = bits.bitsAt(0, bits.length());
+            lengths[i] = bits.length();
+            i++;
+        }
+        return new HuffmanDecodeTable(symbols, codes, lengths);
+    }
+
+    /**
+     * Decodes the bits of the given bit string starting at the specified
+     * index, passing each decoded symbol to the sink. Decoding stops at the
+     * end of the bit string; a trailing incomplete code is not consumed.
+     * @param bits the encoded bits
+     * @param start the index of the first bit to decode
+     * @param sink the consumer of decoded symbols
+     * @return the index just past the last complete code decoded
+     * @throws IllegalArgumentException if the bits contain a pattern that
+     *         begins no code
+     */
+    public int decode(final StringOfBits bits,
+                      final int start,
+                      final IntConsumer sink)
+            throws IllegalArgumentException {
+        int end = bits.length();
+        int position = start;
+        while (position < end) {
+            int next = decodeOne(bits, position, end, sink);
+            if (next < 0) {
+                break;
+            }
+            position = next;
+        }
+        return position;
+    }
+
+    /**
+     * Decodes a single symbol starting at the specified index.
+     * @param bits the encoded bits
+     * @param start the index of the first bit of the code
+     * @param end the index just past the last usable bit
+     * @param sink the consumer of the decoded symbol
+     * @return the index just past the decoded code; -1 if the code is
+     *         incomplete before end
+     * @throws IllegalArgumentException if the bits begin no code
+     */
+    private int decodeOne(final StringOfBits bits,
+                          final int start,
+                          final int end,
+                          final IntConsumer sink)
+            throws IllegalArgumentException {
+        int available = Math.min(MAX_CODE_LENGTH, end - start);
+        long window = bits.bitsAt(start, available)
+                << (MAX_CODE_LENGTH - available);
+        int result = lookup(window, available);
+        if (result < 0) {
+            return -1;
+        }
+        sink.accept(symbolOf(result));
+        return start + lengthOf(result);
+    }
+
+    /**
+     * Looks up the code at the start of a window of bits. The window is
+     * left-aligned: its most significant bit is the first bit of the code,
+     * and only its first <code>available</code> bits are meaningful.
+     * @param window the bits to decode, left-aligned
+     * @param available the number of meaningful bits in the window
+     * @return the symbol and code length packed into an int, to be unpacked
+     *         with {@link #symbolOf(int)} and {@link #lengthOf(int)}; -1 if
+     *         the window ends before the code does
+     * @throws IllegalArgumentException if the available bits begin no code
+     */
+    public int lookup(final long window, final int available)
+            throws IllegalArgumentException {
+        int[] table = this.tables[0];
+        int width = this.primaryWidth;
+        long rest = window;
+        int used = 0;
+        while (true) {
+            int entry = table[(int) (rest >>> (MAX_CODE_LENGTH - width))];
+            if (entry == 0) {
+                if (used + width > available) {
+                    return -1;
+                }
+                throw new IllegalArgumentException("Invalid code.");
+            }
+            if (entry > 0) {
+                used += entry & ENTRY_MASK;
+                if (used > available) {
+                    return -1;
+                }
+                return ((entry >>> ENTRY_SHIFT) << ENTRY_SHIFT) | used;
+            }
+            used += width;
+            if (used >= available) {
+                return -1;
+            }
+            rest <<= width;
+            int link = -entry;
+            table = this.tables[link >>> ENTRY_SHIFT];
+            width = link & ENTRY_MASK;
+        }
+    }
+
+    /**
+     * Extracts the symbol from a result of {@link #lookup(long, int)}.
+     * @param result a non-negative lookup result
+     * @return the decoded symbol
+     */
+    public static int symbolOf(final int result) {
+        return result >>> ENTRY_SHIFT;
+    }
+
+    /**
+     * Extracts the code length from a result of {@link #lookup(long, int)}.
+     * @param result a non-negative lookup result
+     * @return the number of bits in the decoded code
+     */
+    public static int lengthOf(final int result) {
+        return result & ENTRY_MASK;
+    }
+
+    /**
+     * Returns the length of the longest code in this table.
+     * @return the maximum code length
+     */
+    public int maxCodeLength() {
+        return this.maxLength;
+    }
+
+    /**
+     * Fills a table, and recursively any sub-tables it needs, for the codes
+     * whose first <code>consumed</code> bits have already been resolved.
+     * @param tableList the list of tables being built
+     * @param members indices of the codes belonging to this table
+     * @param symbols the symbols of the code
+     * @param codes the code of each symbol, right-aligned
+     * @param lengths the length in bits of each code
+     * @param consumed the number of leading bits resolved by parent tables
+     * @param width the width in bits of this table
+     * @return the index of this table within the list
+     * @throws IllegalArgumentException if two codes collide
+     */
+    private static int buildTable(final List<int[]> tableList,
+                                  final List<Integer> members,
+                                  final int[] symbols,
+                                  final long[] codes,
+                                  final int[] lengths,
+                                  final int consumed,
+                                  final int width)
+            throws IllegalArgumentException {
+        int[] table = new int[1 << width];
+        int tableIndex = tableList.size();
+        tableList.add(table);
+        Map<Integer, List<Integer>> overflow = new HashMap<>();
+        for (int i : members) {
+            int remaining = lengths[i] - consumed;
+            if (remaining <= width) {
+                int prefix = (int) (codes[i] & lowMask(remaining));
+                int from = prefix << (width - remaining);
+                int to = (prefix + 1) << (width - remaining);
+                int entry = (symbols[i] << ENTRY_SHIFT) | remaining;
+                for (int j = from; j < to; j++) {
+                    if (table[j] != 0) {
+                        throw new IllegalArgumentException(
+                                "Code is not prefix-free.");
+                    }
+                    table[j] = entry;
+                }
+            } else {
+                int prefix = (int) ((codes[i] >>> (remaining - width))
+                        & lowMask(width));
+                overflow.computeIfAbsent(prefix, k -> new ArrayList<>())
+                        .add(i);
+            }
+        }
+        for (Map.Entry<Integer, List<Integer>> e : overflow.entrySet()) {
+            if (table[e.getKey()] != 0) {
+                throw new IllegalArgumentException("Code is not prefix-free.");
+            }
+            int longest = 0;
+            for (int i : e.getValue()) {
+                longest = Math.max(longest, lengths[i]);
+            }
+            int subWidth = Math.min(SUB_BITS, longest - consumed - width);
+            int subIndex = buildTable(tableList, e.getValue(), symbols,
+                    codes, lengths, consumed + width, subWidth);
+            table[e.getKey()] = -((subIndex << ENTRY_SHIFT) | subWidth);
+        }
+        return tableIndex;
+    }
+
+    /**
+     * Utility method returning a mask of the low-order bits of a long.
+     * @param count the number of low-order bits to keep, 0 to 64
+     * @return a mask with the low count bits set
+     */
+    private static long lowMask(final int count) {
+        if (count >= StringOfBits.WORD_SIZE) {
+            return -1L;
+        }
+        return (1L << count) - 1;
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for HuffmanDecodeTable.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class HuffmanDecodeTableTest {
+
+    /** Symbol-to-code map for "roadrunner". */
+    private static final Map<Character, StringOfBits> MAP;
+
+    /** Initialization for MAP. */
+    static {
+        MAP = new HashMap<>();
+        MAP.put('r', new StringOfBits("11"));
+        MAP.put('o', new StringOfBits("100"));
+        MAP.put('a', new StringOfBits("001"));
+        MAP.put('d', new StringOfBits("1011"));
+        MAP.put('u', new StringOfBits("1010"));
+        MAP.put('n', new StringOfBits("01"));
+        MAP.put('e', new StringOfBits("000"));
+    }
+
+    /** Number of symbols in the skewed test code. */
+    private static final int SKEWED_SIZE = 30;
+
+    /**
+     * Generates a maximally skewed code ("1", "01", "001", ...) whose
+     * longest codes need several levels of sub-tables.
+     * @return a skewed symbol-to-code map
+     */
+    private static Map<Character, StringOfBits> skewedCode() {
+        Map<Character, StringOfBits> code = new HashMap<>();
+        StringOfBits prefix = new StringOfBits();
+        for (int i = 0; i < SKEWED_SIZE - 1; i++) {
+            code.put((char) ('A' + i), new StringOfBits(prefix).append(1));
+            prefix.append(0);
+        }
+        code.put((char) ('A' + SKEWED_SIZE - 1), prefix);
+        return code;
+    }
+
+    /**
+     * Decodes a bit string with the given table into a string.
+     * @param table the decode table
+     * @param bits the bits to decode
+     * @return the decoded string
+     */
+    private static String decode(final HuffmanDecodeTable table,
+                                 final StringOfBits bits) {
+        StringBuilder out = new StringBuilder();
+        table.decode(bits, 0, symbol -> out.append((char) symbol));
+        return out.toString();
+    }
+
+    /**
+     * Encodes a string with the given code.
+     * @param code the symbol-to-code map
+     * @param input the string to encode
+     * @return the encoded bits
+     */
+    private static StringOfBits encode(final Map<Character, StringOfBits> code,
+                                       final String input) {
+        StringOfBits bits = new StringOfBits();
+        input.chars().forEach(c -> bits.append(code.get((char) c)));
+        return bits;
+    }
+
+    /**
+     * Tests decoding of short codes resolved by the primary table.
+     */
+    @Test
+    public void primaryTableDecodeTest() {
+        HuffmanDecodeTable table = HuffmanDecodeTable.fromCode(MAP);
+        String[] words = {"", "unordered", "rodeo", "neuron", "roadrunner"};
+        for (String word : words) {
+            assertEquals(decode(table, encode(MAP, word)), word);
+        }
+    }
+
+    /**
+     * Tests decoding of long codes resolved through sub-tables.
+     */
+    @Test
+    public void subTableDecodeTest() {
+        Map<Character, StringOfBits> code = skewedCode();
+        HuffmanDecodeTable table = HuffmanDecodeTable.fromCode(code);
+        StringBuilder input = new StringBuilder();
+        for (int i = SKEWED_SIZE - 1; i >= 0; i--) {
+            input.append((char) ('A' + i));
+        }
+        input.append("ABAC");
+        assertEquals(decode(table, encode(code, input.toString())),
+                input.toString());
+    }
+
+    /**
+     * Verifies a trailing incomplete code is left unconsumed.
+     */
+    @Test
+    public void truncatedDecodeTest() {
+        HuffmanDecodeTable table = HuffmanDecodeTable.fromCode(MAP);
+        StringOfBits bits = encode(MAP, "rod").append("10");
+        StringBuilder out = new StringBuilder();
+        int end = table.decode(bits, 0, symbol -> out.append((char) symbol));
+        assertEquals(out.toString(), "rod");
+        assertEquals(end, bits.length() - 2);
+    }
+
+    /**
+     * Verifies exception for a bit pattern that begins no code.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidCodeException() {
+        Map<Character, StringOfBits> code = new HashMap<>();
+        code.put('a', new StringOfBits("0"));
+        code.put('b', new StringOfBits("10"));
+        decode(HuffmanDecodeTable.fromCode(code), new StringOfBits("011"));
+    }
+
+    /**
+     * Verifies exception for a code that is not prefix-free.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void prefixCollisionException() {
+        Map<Character, StringOfBits> code = new HashMap<>();
+        code.put('a', new StringOfBits("0"));
+        code.put('b', new StringOfBits("01"));
+        HuffmanDecodeTable.fromCode(code);
+    }
+}
@@ -0,0 +1,942 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * Compresses and decompresses files using a versioned Huffman container
+ * format. Each byte of the original file is a symbol. The compressed file
+ * consists of:
+ * <ol>
+ * <li>the magic number {@link #MAGIC} (4 bytes),</li>
+ * <li>the format version {@link #VERSION} (1 byte),</li>
+ * <li>the length of the original file in bytes (8 bytes),</li>
+ * <li>the CRC-32 checksum of the original file (4 bytes),</li>
+ * <li>if the original file is not empty, the canonical code as written by
+ *     {@link CanonicalCode#write(java.io.DataOutput)}, and</li>
+ * <li>if the original file is not empty, the packed payload as written by
+ *     {@link HuffmanOutputStream}.</li>
+ * </ol>
+ * All multi-byte values are big-endian.
+ * <p>
+ * Files may be processed either through buffered streams
+ * ({@link #compress(Path, Path)}, {@link #decompress(Path, Path)}) or
+ * directly over memory-mapped regions of the files
+ * ({@link #compressMapped(Path, Path)},
+ * {@link #decompressMapped(Path, Path)}). Both produce and accept the same
+ * format.
+ * </p>
+ * <p>
+ * {@link #compressParallel(Path, Path)} writes the block format, version
+ * {@link #BLOCK_VERSION}, in which the input is split into independent
+ * blocks that are counted, encoded, and decoded in parallel on a
+ * {@link ForkJoinPool}. After the magic number and version, a block file
+ * holds the original length (8 bytes), the block size (4 bytes), the
+ * canonical code if the original file is not empty, then for each block its
+ * compressed length (4 bytes) and the CRC-32 checksum of its original bytes
+ * (4 bytes), and finally the payload of each block in
+ * {@link HuffmanOutputStream} format. Both decompression methods accept
+ * either version.
+ * </p>
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public final class HuffmanFile {
+
+    /** Magic number identifying a compressed file ("HUFF"). */
+    public static final int MAGIC = 0x48554646;
+
+    /** Current version of the file format. */
+    public static final int VERSION = 1;
+
+    /** Version of the parallel block file format. */
+    public static final int BLOCK_VERSION = 2;
+
+    /** Default size in bytes of each block in the block format. */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /** Number of distinct byte values. */
+    private static final int ALPHABET_SIZE = 256;
+
+    /** Size in bytes of IO buffers. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Mask of the bits of a byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** Size in bytes of a block's size and checksum in the header. */
+    private static final int BLOCK_ENTRY_SIZE = 2 * Integer.BYTES;
+
+    /** Largest number of bytes mapped at once. */
+    private static final int REGION_SIZE = 1 << 30;
+
+    /** Largest number of bits added to a bit accumulator at once. */
+    private static final int MAX_APPEND = Long.SIZE - Byte.SIZE;
+
+    /** Number of blocks below which a block task runs sequentially. */
+    private static final int BLOCK_THRESHOLD = 1;
+
+    /**
+     * Not instantiable.
+     */
+    private HuffmanFile() {
+    }
+
+    /**
+     * Compresses a file. The source is read twice: once to count byte
+     * frequencies and once to encode.
+     * @param source the file to compress
+     * @param target the file to which to write the compressed data
+     * @throws IOException if an IO error occurs
+     */
+    public static void compress(final Path source, final Path target)
+            throws IOException {
+        long[] counts = new long[ALPHABET_SIZE];
+        CRC32 checksum = new CRC32();
+        long length = 0;
+        byte[] chunk = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(source)) {
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    counts[chunk[i] & BYTE_MASK]++;
+                }
+                checksum.update(chunk, 0, n);
+                length += n;
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target)))) {
+            CanonicalCode canonical = null;
+            if (length > 0) {
+                canonical = codeFor(counts);
+            }
+            writeHeader(out, length, (int) checksum.getValue(), canonical);
+            if (length == 0) {
+                return;
+            }
+            HuffmanOutputStream encoder = new HuffmanOutputStream(out,
+                    new HuffmanCode(canonical));
+            try (InputStream in = Files.newInputStream(source)) {
+                int n;
+                while ((n = in.read(chunk)) > 0) {
+                    encoder.write(chunk, 0, n);
+                }
+            }
+            encoder.finish();
+        }
+    }
+
+    /**
+     * Decompresses a file written by {@link #compress(Path, Path)}.
+     * @param source the compressed file
+     * @param target the file to which to write the original data
+     * @throws IOException if an IO error occurs, or the source is not a
+     *         compressed file of a supported version, or its contents fail
+     *         the checksum
+     */
+    public static void decompress(final Path source, final Path target)
+            throws IOException {
+        if (versionOf(source) == BLOCK_VERSION) {
+            decompressParallel(source, target, ForkJoinPool.commonPool());
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(source)));
+             OutputStream out = new BufferedOutputStream(
+                     Files.newOutputStream(target))) {
+            long length = readHeader(in);
+            int expected = in.readInt();
+            CRC32 checksum = new CRC32();
+            if (length > 0) {
+                CanonicalCode canonical = readCode(in);
+                HuffmanInputStream decoder = new HuffmanInputStream(in,
+                        new HuffmanCode(canonical));
+                byte[] chunk = new byte[BUFFER_SIZE];
+                long remaining = length;
+                while (remaining > 0) {
+                    int n = decoder.read(chunk, 0,
+                            (int) Math.min(chunk.length, remaining));
+                    if (n < 0) {
+                        throw new IOException("Payload too short.");
+                    }
+                    checksum.update(chunk, 0, n);
+                    out.write(chunk, 0, n);
+                    remaining -= n;
+                }
+            }
+            if ((int) checksum.getValue() != expected) {
+                throw new IOException("Checksum mismatch.");
+            }
+        }
+    }
+
+    /**
+     * Compresses a file by reading and writing memory-mapped regions of the
+     * files rather than streams. The exact size of the compressed file is
+     * computed from the byte counts before encoding, so the whole output is
+     * mapped once at its final size.
+     * @param source the file to compress
+     * @param target the file to which to write the compressed data
+     * @throws IOException if an IO error occurs
+     */
+    public static void compressMapped(final Path source, final Path target)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(source,
+                StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long length = in.size();
+            long[] counts = new long[ALPHABET_SIZE];
+            CRC32 checksum = new CRC32();
+            MappedCursor reader = new MappedCursor(in,
+                    FileChannel.MapMode.READ_ONLY, 0, length);
+            while (reader.nextRegion()) {
+                MappedByteBuffer region = reader.region();
+                checksum.update(region.duplicate());
+                while (region.hasRemaining()) {
+                    counts[region.get() & BYTE_MASK]++;
+                }
+            }
+            CanonicalCode canonical = null;
+            long payloadBits = 0;
+            if (length > 0) {
+                canonical = codeFor(counts);
+                for (int b = 0; b < counts.length; b++) {
+                    payloadBits += counts[b] * canonical.getLength(b);
+                }
+            }
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            writeHeader(new DataOutputStream(header), length,
+                    (int) checksum.getValue(), canonical);
+            long size = header.size();
+            if (length > 0) {
+                size += (payloadBits + Byte.SIZE - 1) / Byte.SIZE + 1;
+            }
+            MappedCursor writer = new MappedCursor(out,
+                    FileChannel.MapMode.READ_WRITE, 0, size);
+            for (byte b : header.toByteArray()) {
+                writer.put(b);
+            }
+            if (length > 0) {
+                encodeMapped(canonical, new MappedCursor(in,
+                        FileChannel.MapMode.READ_ONLY, 0, length), writer);
+            }
+        }
+    }
+
+    /**
+     * Decompresses a file written by {@link #compress(Path, Path)} or
+     * {@link #compressMapped(Path, Path)} by reading and writing
+     * memory-mapped regions of the files rather than streams.
+     * @param source the compressed file
+     * @param target the file to which to write the original data
+     * @throws IOException if an IO error occurs, or the source is not a
+     *         compressed file of a supported version, or its contents fail
+     *         the checksum
+     */
+    public static void decompressMapped(final Path source, final Path target)
+            throws IOException {
+        if (versionOf(source) == BLOCK_VERSION) {
+            decompressParallel(source, target, ForkJoinPool.commonPool());
+            return;
+        }
+        try (FileChannel in = FileChannel.open(source,
+                StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedCursor reader = new MappedCursor(in,
+                    FileChannel.MapMode.READ_ONLY, 0, in.size());
+            DataInputStream header = new DataInputStream(reader);
+            long length = readHeader(header);
+            int expected = header.readInt();
+            if (length > 0) {
+                CanonicalCode canonical = readCode(header);
+                decodeMapped(canonical, reader, new MappedCursor(out,
+                        FileChannel.MapMode.READ_WRITE, 0, length), length);
+            }
+            CRC32 checksum = new CRC32();
+            MappedCursor written = new MappedCursor(out,
+                    FileChannel.MapMode.READ_ONLY, 0, length);
+            while (written.nextRegion()) {
+                checksum.update(written.region());
+            }
+            if ((int) checksum.getValue() != expected) {
+                throw new IOException("Checksum mismatch.");
+            }
+        }
+    }
+
+    /**
+     * Compresses a file in the block format with the default block size on
+     * the common fork/join pool.
+     * @param source the file to compress
+     * @param target the file to which to write the compressed data
+     * @throws IOException if an IO error occurs
+     */
+    public static void compressParallel(final Path source, final Path target)
+            throws IOException {
+        compressParallel(source, target, DEFAULT_BLOCK_SIZE,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compresses a file in the block format. Block histograms are counted in
+     * parallel and merged into the histogram for a single code shared by all
+     * blocks. Since each block's compressed length follows from its
+     * histogram, every block is then encoded in parallel and written
+     * directly at its final position.
+     * @param source the file to compress
+     * @param target the file to which to write the compressed data
+     * @param blockSize the number of original bytes in each block
+     * @param pool the pool on which to run block tasks
+     * @throws IOException if an IO error occurs
+     * @throws IllegalArgumentException if blockSize is not positive
+     */
+    public static void compressParallel(final Path source,
+                                        final Path target,
+                                        final int blockSize,
+                                        final ForkJoinPool pool)
+            throws IOException, IllegalArgumentException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive.");
+        }
+        try (FileChannel in = FileChannel.open(source,
+                StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target,
+                     StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long length = in.size();
+            int blocks = blockCount(length, blockSize);
+            long[][] blockCounts = new long[blocks][];
+            int[] checksums = new int[blocks];
+            runBlocks(pool, blocks, block -> {
+                MappedByteBuffer region = in.map(
+                        FileChannel.MapMode.READ_ONLY,
+                        (long) block * blockSize,
+                        blockLength(length, blockSize, block));
+                CRC32 checksum = new CRC32();
+                checksum.update(region.duplicate());
+                long[] histogram = new long[ALPHABET_SIZE];
+                while (region.hasRemaining()) {
+                    histogram[region.get() & BYTE_MASK]++;
+                }
+                blockCounts[block] = histogram;
+                checksums[block] = (int) checksum.getValue();
+            });
+            long[] counts = new long[ALPHABET_SIZE];
+            for (long[] block : blockCounts) {
+                for (int b = 0; b < ALPHABET_SIZE; b++) {
+                    counts[b] += block[b];
+                }
+            }
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(header);
+            data.writeInt(MAGIC);
+            data.writeByte(BLOCK_VERSION);
+            data.writeLong(length);
+            data.writeInt(blockSize);
+            if (length == 0) {
+                writeFully(out, header.toByteArray(), 0);
+                return;
+            }
+            CanonicalCode canonical = codeFor(counts);
+            canonical.write(data);
+            int[] sizes = new int[blocks];
+            for (int block = 0; block < blocks; block++) {
+                long bits = 0;
+                for (int b = 0; b < ALPHABET_SIZE; b++) {
+                    bits += blockCounts[block][b] * canonical.getLength(b);
+                }
+                sizes[block] = (int) ((bits + Byte.SIZE - 1) / Byte.SIZE) + 1;
+                data.writeInt(sizes[block]);
+                data.writeInt(checksums[block]);
+            }
+            long[] offsets = blockOffsets(header.size(), sizes);
+            writeFully(out, header.toByteArray(), 0);
+            HuffmanCode code = new HuffmanCode(canonical);
+            runBlocks(pool, blocks, block -> {
+                MappedByteBuffer region = in.map(
+                        FileChannel.MapMode.READ_ONLY,
+                        (long) block * blockSize,
+                        blockLength(length, blockSize, block));
+                ByteArrayOutputStream encoded =
+                        new ByteArrayOutputStream(sizes[block]);
+                HuffmanOutputStream encoder =
+                        new HuffmanOutputStream(encoded, code);
+                byte[] chunk = new byte[BUFFER_SIZE];
+                while (region.hasRemaining()) {
+                    int n = Math.min(chunk.length, region.remaining());
+                    region.get(chunk, 0, n);
+                    encoder.write(chunk, 0, n);
+                }
+                encoder.finish();
+                writeFully(out, encoded.toByteArray(), offsets[block]);
+            });
+        }
+    }
+
+    /**
+     * Decompresses a file in the block format, decoding blocks in parallel.
+     * @param source the compressed file
+     * @param target the file to which to write the original data
+     * @param pool the pool on which to run block tasks
+     * @throws IOException if an IO error occurs, or the source is not a
+     *         block file, or its header is corrupt, or a block fails its
+     *         checksum
+     */
+    public static void decompressParallel(final Path source,
+                                          final Path target,
+                                          final ForkJoinPool pool)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(source,
+                StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target,
+                     StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedCursor reader = new MappedCursor(in,
+                    FileChannel.MapMode.READ_ONLY, 0, in.size());
+            DataInputStream header = new DataInputStream(reader);
+            if (header.readInt() != MAGIC
+                    || header.readUnsignedByte() != BLOCK_VERSION) {
+                throw new IOException("Not a Huffman block file.");
+            }
+            long length = header.readLong();
+            int blockSize = header.readInt();
+            if (length < 0) {
+                throw new IOException("Corrupt length.");
+            }
+            if (length == 0) {
+                return;
+            }
+            if (blockSize <= 0) {
+                throw new IOException("Corrupt block size.");
+            }
+            HuffmanCode code = new HuffmanCode(readCode(header));
+            int blocks = blockCount(length, blockSize);
+            long fileSize = in.size();
+            if (blocks > (fileSize - reader.position()) / BLOCK_ENTRY_SIZE) {
+                throw new IOException("Corrupt block count.");
+            }
+            int[] sizes = new int[blocks];
+            int[] checksums = new int[blocks];
+            for (int block = 0; block < blocks; block++) {
+                sizes[block] = header.readInt();
+                checksums[block] = header.readInt();
+            }
+            long[] offsets = blockOffsets(reader.position(), sizes);
+            for (int block = 0; block < blocks; block++) {
+                if (sizes[block] <= 0
+                        || sizes[block] > fileSize - offsets[block]
+                        || blockLength(length, blockSize, block)
+                                > (long) Byte.SIZE * sizes[block]) {
+                    throw new IOException("Corrupt size of block "
+                            + block + ".");
+                }
+            }
+            runBlocks(pool, blocks, block -> {
+                byte[] encoded = new byte[sizes[block]];
+                readFully(in, encoded, offsets[block]);
+                byte[] decoded = new byte[
+                        (int) blockLength(length, blockSize, block)];
+                HuffmanInputStream decoder = new HuffmanInputStream(
+                        new ByteArrayInputStream(encoded), code);
+                int n = 0;
+                while (n < decoded.length) {
+                    int read = decoder.read(decoded, n, decoded.length - n);
+                    if (read < 0) {
+                        throw new IOException("Block too short.");
+                    }
+                    n += read;
+                }
+                CRC32 checksum = new CRC32();
+                checksum.update(decoded, 0, decoded.length);
+                if ((int) checksum.getValue() != checksums[block]) {
+                    throw new IOException("Checksum mismatch in block "
+                            + block + ".");
+                }
+                writeFully(out, decoded, (long) block * blockSize);
+            });
+        }
+    }
+
+    /**
+     * Encodes every byte from a mapped input into a mapped output, followed
+     * by the padding and trailer of the {@link HuffmanOutputStream} format.
+     * @param canonical the code with which to encode
+     * @param reader the mapped input
+     * @param writer the mapped output
+     * @throws IOException if an IO error occurs
+     */
+    private static void encodeMapped(final CanonicalCode canonical,
+                                     final MappedCursor reader,
+                                     final MappedCursor writer)
+            throws IOException {
+        int[] lengths = new int[ALPHABET_SIZE];
+        long[] codes = new long[ALPHABET_SIZE];
+        for (int b = 0; b < ALPHABET_SIZE; b++) {
+            lengths[b] = canonical.getLength(b);
+            codes[b] = canonical.getCode(b);
+        }
+        long accumulator = 0;
+        int pending = 0;
+        while (reader.nextRegion()) {
+            MappedByteBuffer region = reader.region();
+            while (region.hasRemaining()) {
+                int b = region.get() & BYTE_MASK;
+                int length = lengths[b];
+                long code = codes[b];
+                if (length > MAX_APPEND) {
+                    int high = length - MAX_APPEND;
+                    accumulator = (accumulator << high)
+                            | (code >>> MAX_APPEND);
+                    pending += high;
+                    while (pending >= Byte.SIZE) {
+                        pending -= Byte.SIZE;
+                        writer.put((byte) (accumulator >>> pending));
+                    }
+                    length = MAX_APPEND;
+                    code &= (1L << MAX_APPEND) - 1;
+                }
+                accumulator = (accumulator << length) | code;
+                pending += length;
+                while (pending >= Byte.SIZE) {
+                    pending -= Byte.SIZE;
+                    writer.put((byte) (accumulator >>> pending));
+                }
+                accumulator &= (1L << pending) - 1;
+            }
+        }
+        int padding = 0;
+        if (pending > 0) {
+            padding = Byte.SIZE - pending;
+            writer.put((byte) (accumulator << padding));
+        }
+        writer.put((byte) padding);
+    }
+
+    /**
+     * Decodes the given number of bytes from a mapped input into a mapped
+     * output.
+     * @param canonical the code with which to decode
+     * @param reader the mapped input, positioned at the payload
+     * @param writer the mapped output
+     * @param length the number of bytes to decode
+     * @throws IOException if an IO error occurs or the payload is corrupt
+     */
+    private static void decodeMapped(final CanonicalCode canonical,
+                                     final MappedCursor reader,
+                                     final MappedCursor writer,
+                                     final long length)
+            throws IOException {
+        HuffmanDecodeTable table = canonical.getDecodeTable();
+        if (table.maxCodeLength() > MAX_APPEND) {
+            throw new IOException("Code length too long.");
+        }
+        long accumulator = 0;
+        int available = 0;
+        for (long i = 0; i < length; i++) {
+            while (available <= MAX_APPEND && reader.hasRemaining()) {
+                accumulator = (accumulator << Byte.SIZE)
+                        | (reader.get() & BYTE_MASK);
+                available += Byte.SIZE;
+            }
+            int result;
+            try {
+                result = table.lookup(
+                        accumulator << (Long.SIZE - available), available);
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Corrupt Huffman data.", ex);
+            }
+            if (result < 0) {
+                throw new EOFException("Payload too short.");
+            }
+            available -= HuffmanDecodeTable.lengthOf(result);
+            accumulator &= (1L << available) - 1;
+            writer.put((byte) HuffmanDecodeTable.symbolOf(result));
+        }
+    }
+
+    /**
+     * Writes the fixed header fields and, for a nonempty file, the code.
+     * @param out the output to which to write
+     * @param length the length of the original file
+     * @param checksum the CRC-32 checksum of the original file
+     * @param canonical the code; null if the original file is empty
+     * @throws IOException if an IO error occurs
+     */
+    private static void writeHeader(final DataOutput out,
+                                    final long length,
+                                    final int checksum,
+                                    final CanonicalCode canonical)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(length);
+        out.writeInt(checksum);
+        if (canonical != null) {
+            canonical.write(out);
+        }
+    }
+
+    /**
+     * Reads and checks the magic number and version, then reads the length
+     * of the original file.
+     * @param in the input from which to read
+     * @return the length of the original file
+     * @throws IOException if an IO error occurs or the header is invalid
+     */
+    private static long readHeader(final DataInputStream in)
+            throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a Huffman file.");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version: " + version);
+        }
+        return in.readLong();
+    }
+
+    /**
+     * Reads the version of a compressed file.
+     * @param source the compressed file
+     * @return the format version
+     * @throws IOException if an IO error occurs or the file is not a
+     *         compressed file
+     */
+    private static int versionOf(final Path source) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                Files.newInputStream(source))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a Huffman file.");
+            }
+            return in.readUnsignedByte();
+        }
+    }
+
+    /**
+     * Runs an action for every block index, splitting the range of blocks
+     * across the given pool.
+     * @param pool the pool on which to run
+     * @param blocks the number of blocks
+     * @param action the action to run for each block
+     * @throws IOException if the action throws an IOException for any block
+     */
+    private static void runBlocks(final ForkJoinPool pool,
+                                  final int blocks,
+                                  final BlockAction action)
+            throws IOException {
+        try {
+            pool.invoke(new BlockTask(action, 0, blocks));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Returns the number of blocks needed for a file.
+     * @param length the length of the original file
+     * @param blockSize the number of bytes in each block
+     * @return the number of blocks
+     * @throws IOException if there would be too many blocks
+     */
+    private static int blockCount(final long length, final int blockSize)
+            throws IOException {
+        long blocks = (length + blockSize - 1) / blockSize;
+        if (blocks > Integer.MAX_VALUE) {
+            throw new IOException("Too many blocks.");
+        }
+        return (int) blocks;
+    }
+
+    /**
+     * Returns the number of original bytes in a block.
+     * @param length the length of the original file
+     * @param blockSize the number of bytes in each full block
+     * @param block the index of the block
+     * @return the number of bytes in the block
+     */
+    private static long blockLength(final long length,
+                                    final int blockSize,
+                                    final int block) {
+        return Math.min(blockSize, length - (long) block * blockSize);
+    }
+
+    /**
+     * Returns the file position of each block payload.
+     * @param start the file position of the first payload
+     * @param sizes the compressed length of each block
+     * @return the file position of each block
+     */
+    private static long[] blockOffsets(final long start, final int[] sizes) {
+        long[] offsets = new long[sizes.length];
+        long offset = start;
+        for (int block = 0; block < sizes.length; block++) {
+            offsets[block] = offset;
+            offset += sizes[block];
+        }
+        return offsets;
+    }
+
+    /**
+     * Writes all of an array at a file position. Safe to call concurrently
+     * for disjoint ranges.
+     * @param channel the channel to which to write
+     * @param bytes the bytes to write
+     * @param position the file position at which to write
+     * @throws IOException if an IO error occurs
+     */
+    private static void writeFully(final FileChannel channel,
+                                   final byte[] bytes,
+                                   final long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Fills an array from a file position. Safe to call concurrently.
+     * @param channel the channel from which to read
+     * @param bytes the array to fill
+     * @param position the file position from which to read
+     * @throws IOException if an IO error occurs or the file ends first
+     */
+    private static void readFully(final FileChannel channel,
+                                  final byte[] bytes,
+                                  final long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Block past end of file.");
+            }
+        }
+    }
+
+    /**
+     * Reads the canonical code from the header.
+     * @param in the input from which to read
+     * @return the canonical code
+     * @throws IOException if an IO error occurs or the code is invalid
+     */
+    private static CanonicalCode readCode(final DataInputStream in)
+            throws IOException {
+        try {
+            return CanonicalCode.read(in);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Corrupt code header.", ex);
+        }
+    }
+
+    /**
+     * Builds the canonical Huffman code for the given byte counts. Codes
+     * are limited to the length a {@link HuffmanInputStream} can decode,
+     * which only changes the code for extremely skewed counts.
+     * @param counts the number of occurrences of each byte value
+     * @return the canonical code for the counts
+     */
+    private static CanonicalCode codeFor(final long[] counts) {
+        return new HuffmanCode(counts, HuffmanInputStream.MAX_CODE_LENGTH)
+                .getCanonicalCode();
+    }
+
+    /**
+     * Sequential access to a range of a file through successive
+     * memory-mapped regions of at most REGION_SIZE bytes. Also usable as an
+     * InputStream for reading header fields.
+     */
+    private static final class MappedCursor extends InputStream {
+
+        /** The channel of the mapped file. */
+        private final FileChannel channel;
+        /** The mode in which regions are mapped. */
+        private final FileChannel.MapMode mode;
+        /** The file position just past the end of the range. */
+        private final long end;
+        /** The file position of the start of the next region. */
+        private long next;
+        /** The current region; null before the first region is mapped. */
+        private MappedByteBuffer current;
+
+        /**
+         * Creates a cursor over a range of a file.
+         * @param channel the channel of the file
+         * @param mode the mode in which to map regions
+         * @param start the file position of the start of the range
+         * @param size the number of bytes in the range
+         */
+        MappedCursor(final FileChannel channel,
+                     final FileChannel.MapMode mode,
+                     final long start,
+                     final long size) {
+            this.channel = channel;
+            this.mode = mode;
+            this.next = start;
+            this.end = start + size;
+        }
+
+        /**
+         * Maps the next region of the range.
+         * @return true if a region was mapped; false if the range is done
+         * @throws IOException if an IO error occurs
+         */
+        boolean nextRegion() throws IOException {
+            if (this.next >= this.end) {
+                return false;
+            }
+            long size = Math.min(REGION_SIZE, this.end - this.next);
+            this.current = this.channel.map(this.mode, this.next, size);
+            this.next += size;
+            return true;
+        }
+
+        /**
+         * Returns the file position of the next byte of the range.
+         * @return the current file position
+         */
+        long position() {
+            if (this.current == null) {
+                return this.next;
+            }
+            return this.next - this.current.remaining();
+        }
+
+        /**
+         * Returns the current region.
+         * @return the current region
+         */
+        MappedByteBuffer region() {
+            return this.current;
+        }
+
+        /**
+         * Checks whether bytes remain in the range, mapping the next region
+         * if the current one is used up.
+         * @return true if at least one byte remains
+         * @throws IOException if an IO error occurs
+         */
+        boolean hasRemaining() throws IOException {
+            while (this.current == null || !this.current.hasRemaining()) {
+                if (!nextRegion()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Reads the next byte of the range.
+         * @return the next byte
+         * @throws IOException if an IO error occurs or the range is done
+         */
+        byte get() throws IOException {
+            if (!hasRemaining()) {
+                throw new EOFException();
+            }
+            return this.current.get();
+        }
+
+        /**
+         * Writes the next byte of the range.
+         * @param b the byte to write
+         * @throws IOException if an IO error occurs or the range is done
+         */
+        void put(final byte b) throws IOException {
+            if (!hasRemaining()) {
+                throw new EOFException();
+            }
+            this.current.put(b);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!hasRemaining()) {
+                return -1;
+            }
+            return this.current.get() & BYTE_MASK;
+        }
+    }
+
+    /**
+     * An action on a single block which may throw an IOException.
+     */
+    @FunctionalInterface
+    private interface BlockAction {
+
+        /**
+         * Runs the action for one block.
+         * @param block the index of the block
+         * @throws IOException if an IO error occurs
+         */
+        void run(int block) throws IOException;
+    }
+
+    /**
+     * Fork/join task running a block action over a range of blocks by
+     * recursively splitting the range in half.
+     */
+    private static final class BlockTask extends RecursiveAction {
+
+        /** Serialization version indicator. */
+        private static final long serialVersionUID = 2016101701L;
+
+        /** The action to run for each block. */
+        private final BlockAction action;
+        /** The first block of the range. */
+        private final int from;
+        /** The block just past the end of the range. */
+        private final int to;
+
+        /**
+         * Creates a task for a range of blocks.
+         * @param action the action to run for each block
+         * @param from the first block of the range
+         * @param to the block just past the end of the range
+         */
+        BlockTask(final BlockAction action, final int from, final int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= BLOCK_THRESHOLD) {
+                try {
+                    for (int block = this.from; block < this.to; block++) {
+                        this.action.run(block);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new BlockTask(this.action, this.from, middle),
+                    new BlockTask(this.action, middle, this.to));
+        }
+    }
+}
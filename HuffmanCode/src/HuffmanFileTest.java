@@ -0,0 +1,295 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Tests for HuffmanFile.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class HuffmanFileTest {
+
+    /** Index of the original length in the block format header. */
+    private static final int LENGTH_FIELD = Integer.BYTES + 1;
+
+    /** Length of the magic, version, length, and checksum fields. */
+    private static final int HEADER_LENGTH = 17;
+
+    /**
+     * Compresses and decompresses data through temporary files.
+     * @param data the data to round-trip
+     * @return the decompressed data
+     * @throws IOException if unexpected IO error
+     */
+    private static byte[] roundTrip(final byte[] data) throws IOException {
+        Path original = Files.createTempFile("huffman", ".txt");
+        Path compressed = Files.createTempFile("huffman", ".huf");
+        Path restored = Files.createTempFile("huffman", ".out");
+        try {
+            Files.write(original, data);
+            HuffmanFile.compress(original, compressed);
+            HuffmanFile.decompress(compressed, restored);
+            return Files.readAllBytes(restored);
+        } finally {
+            Files.delete(original);
+            Files.delete(compressed);
+            Files.delete(restored);
+        }
+    }
+
+    /**
+     * Tests round trips of text, empty, and single-symbol files.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void roundTripTest() throws IOException {
+        String[] texts = {"roadrunner", "", "aaaaaaa", "x"};
+        for (String text : texts) {
+            byte[] data = text.getBytes(StandardCharsets.UTF_8);
+            assertTrue(Arrays.equals(roundTrip(data), data));
+        }
+    }
+
+    /**
+     * Tests a round trip of arbitrary binary data.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void binaryRoundTripTest() throws IOException {
+        byte[] data = new byte[50000];
+        new Random(data.length).nextBytes(data);
+        assertTrue(Arrays.equals(roundTrip(data), data));
+    }
+
+    /**
+     * Verifies skewed data compresses and the empty file is header-only.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void compressedSizeTest() throws IOException {
+        Path original = Files.createTempFile("huffman", ".txt");
+        Path compressed = Files.createTempFile("huffman", ".huf");
+        try {
+            HuffmanFile.compress(original, compressed);
+            assertEquals(Files.size(compressed), HEADER_LENGTH);
+            byte[] data = new byte[10000];
+            Arrays.fill(data, (byte) 'a');
+            Arrays.fill(data, 0, 100, (byte) 'b');
+            Files.write(original, data);
+            HuffmanFile.compress(original, compressed);
+            assertTrue(Files.size(compressed) < data.length / 4);
+        } finally {
+            Files.delete(original);
+            Files.delete(compressed);
+        }
+    }
+
+    /**
+     * Verifies exception for a file that is not in the container format.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = IOException.class)
+    public void badMagicException() throws IOException {
+        Path bogus = Files.createTempFile("huffman", ".huf");
+        Path restored = Files.createTempFile("huffman", ".out");
+        try {
+            Files.write(bogus, new byte[HEADER_LENGTH]);
+            HuffmanFile.decompress(bogus, restored);
+        } finally {
+            Files.delete(bogus);
+            Files.delete(restored);
+        }
+    }
+
+    /**
+     * Verifies mapped compression matches stream compression byte for byte
+     * and that either decompressor restores the original.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void mappedRoundTripTest() throws IOException {
+        Path original = Files.createTempFile("huffman", ".txt");
+        Path streamed = Files.createTempFile("huffman", ".huf");
+        Path mapped = Files.createTempFile("huffman", ".huf");
+        Path restored = Files.createTempFile("huffman", ".out");
+        try {
+            byte[][] inputs = {new byte[0], "aaaa".getBytes(
+                    StandardCharsets.UTF_8), new byte[70000]};
+            new Random(inputs.length).nextBytes(inputs[2]);
+            for (int i = 0; i < inputs[2].length; i += 3) {
+                inputs[2][i] = 'e';
+            }
+            for (byte[] data : inputs) {
+                Files.write(original, data);
+                HuffmanFile.compress(original, streamed);
+                HuffmanFile.compressMapped(original, mapped);
+                assertTrue(Arrays.equals(Files.readAllBytes(mapped),
+                        Files.readAllBytes(streamed)));
+                HuffmanFile.decompressMapped(mapped, restored);
+                assertTrue(Arrays.equals(Files.readAllBytes(restored), data));
+                HuffmanFile.decompress(mapped, restored);
+                assertTrue(Arrays.equals(Files.readAllBytes(restored), data));
+            }
+        } finally {
+            Files.delete(original);
+            Files.delete(streamed);
+            Files.delete(mapped);
+            Files.delete(restored);
+        }
+    }
+
+    /**
+     * Tests round trips through the parallel block format, including a
+     * final partial block, and decoding through both decompressors.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void parallelRoundTripTest() throws IOException {
+        Path original = Files.createTempFile("huffman", ".txt");
+        Path compressed = Files.createTempFile("huffman", ".huf");
+        Path restored = Files.createTempFile("huffman", ".out");
+        try {
+            byte[][] inputs = {new byte[0], "a".getBytes(
+                    StandardCharsets.UTF_8), new byte[100003]};
+            Random random = new Random(inputs.length);
+            for (int i = 0; i < inputs[2].length; i++) {
+                inputs[2][i] = (byte) (random.nextGaussian() * 10);
+            }
+            for (byte[] data : inputs) {
+                Files.write(original, data);
+                HuffmanFile.compressParallel(original, compressed, 4096,
+                        ForkJoinPool.commonPool());
+                HuffmanFile.decompress(compressed, restored);
+                assertTrue(Arrays.equals(Files.readAllBytes(restored), data));
+                HuffmanFile.decompressMapped(compressed, restored);
+                assertTrue(Arrays.equals(Files.readAllBytes(restored), data));
+            }
+        } finally {
+            Files.delete(original);
+            Files.delete(compressed);
+            Files.delete(restored);
+        }
+    }
+
+    /**
+     * Verifies exception for a corrupted block.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = IOException.class)
+    public void corruptBlockException() throws IOException {
+        Path original = Files.createTempFile("huffman", ".txt");
+        Path compressed = Files.createTempFile("huffman", ".huf");
+        Path restored = Files.createTempFile("huffman", ".out");
+        try {
+            byte[] data = new byte[20000];
+            new Random(data.length).nextBytes(data);
+            Files.write(original, data);
+            HuffmanFile.compressParallel(original, compressed);
+            byte[] bytes = Files.readAllBytes(compressed);
+            bytes[bytes.length - 100] ^= 0x10;
+            Files.write(compressed, bytes);
+            HuffmanFile.decompress(compressed, restored);
+        } finally {
+            Files.delete(original);
+            Files.delete(compressed);
+            Files.delete(restored);
+        }
+    }
+
+    /**
+     * Compresses one block of random data in the block format and passes
+     * the compressed bytes to a corruption before decompressing them.
+     * @param corruption changes the compressed bytes
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    private static void decompressCorrupted(final Consumer<byte[]> corruption)
+            throws IOException {
+        Path original = Files.createTempFile("huffman", ".txt");
+        Path compressed = Files.createTempFile("huffman", ".huf");
+        Path restored = Files.createTempFile("huffman", ".out");
+        try {
+            byte[] data = new byte[1000];
+            new Random(data.length).nextBytes(data);
+            Files.write(original, data);
+            HuffmanFile.compressParallel(original, compressed);
+            byte[] bytes = Files.readAllBytes(compressed);
+            corruption.accept(bytes);
+            Files.write(compressed, bytes);
+            HuffmanFile.decompressParallel(compressed, restored,
+                    ForkJoinPool.commonPool());
+        } finally {
+            Files.delete(original);
+            Files.delete(compressed);
+            Files.delete(restored);
+        }
+    }
+
+    /**
+     * Finds the size field of the only block of a block file, which ends
+     * the header and holds the number of bytes after the header.
+     * @param bytes the block file
+     * @return the index of the size field
+     */
+    private static int blockSizeField(final byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int end = bytes.length; end >= 2 * Integer.BYTES; end--) {
+            if (buffer.getInt(end - 2 * Integer.BYTES)
+                    == bytes.length - end) {
+                return end - 2 * Integer.BYTES;
+            }
+        }
+        throw new AssertionError("No block size field.");
+    }
+
+    /**
+     * Verifies exception for a negative original length.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = IOException.class)
+    public void negativeLengthException() throws IOException {
+        decompressCorrupted(bytes -> ByteBuffer.wrap(bytes)
+                .putLong(LENGTH_FIELD, -1L));
+    }
+
+    /**
+     * Verifies exception for a length implying more blocks than the file
+     * has room to describe.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = IOException.class)
+    public void blockCountException() throws IOException {
+        decompressCorrupted(bytes -> ByteBuffer.wrap(bytes)
+                .putLong(LENGTH_FIELD, (long) HuffmanFile.DEFAULT_BLOCK_SIZE
+                        << Integer.SIZE - 2));
+    }
+
+    /**
+     * Verifies exception for block sizes that are negative or run past the
+     * end of the file.
+     */
+    @Test
+    public void blockSizeException() {
+        for (int size : new int[] {-1, 0, Integer.MAX_VALUE}) {
+            try {
+                decompressCorrupted(bytes -> ByteBuffer.wrap(bytes)
+                        .putInt(blockSizeField(bytes), size));
+                fail("Expected IOException for size " + size + ".");
+            } catch (IOException ex) {
+                // Expected.
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+import java.io.CharConversionException;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream filter that decodes data written by a
+ * {@link HuffmanOutputStream} with the same {@link HuffmanCode}. Encoded
+ * bytes are read through a fixed-size buffer and decoded with
+ * {@link HuffmanDecodeTable} lookups, so memory use is constant regardless
+ * of the length of the stream.
+ * <p>
+ * {@link #read()} returns decoded symbols as bytes and is suitable for
+ * codes over the symbols 0 to 255; {@link #readSymbol()} returns any
+ * decoded symbol.
+ * </p>
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class HuffmanInputStream extends FilterInputStream {
+
+    /** Size in bytes of the input buffer. */
+    public static final int BUFFER_SIZE = 8192;
+
+    /** Longest code length the bit accumulator can always hold. */
+    public static final int MAX_CODE_LENGTH = Long.SIZE - Byte.SIZE;
+
+    /** Mask of the bits of a byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** Bytes kept back in the buffer until the end of input is known. */
+    private static final int LOOKAHEAD = 2;
+
+    /** Lookup tables for decoding. */
+    private final HuffmanDecodeTable table;
+    /** Buffer of encoded bytes read from the underlying stream. */
+    private final byte[] buffer;
+    /** Index of the next unread byte in the buffer. */
+    private int position;
+    /** Number of valid bytes in the buffer. */
+    private int limit;
+    /** Whether the underlying stream has reached its end. */
+    private boolean eof;
+    /** Bits read but not yet decoded, right-aligned. */
+    private long accumulator;
+    /** Number of bits in the accumulator. */
+    private int available;
+    /** Whether the final data byte and trailer have been consumed. */
+    private boolean done;
+
+    /**
+     * Creates a stream that decodes with the given Huffman code.
+     * @param in the underlying input stream
+     * @param code the Huffman code with which to decode
+     * @throws IllegalArgumentException if a code is longer than
+     *         MAX_CODE_LENGTH bits
+     */
+    public HuffmanInputStream(final InputStream in, final HuffmanCode code)
+            throws IllegalArgumentException {
+        super(in);
+        this.table = HuffmanDecodeTable.fromCode(code.getCode());
+        if (this.table.maxCodeLength() > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Code length too long.");
+        }
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Reads the next decoded symbol as a byte.
+     * @return the next symbol, or -1 at the end of the stream
+     * @throws IOException if an IO error occurs or the data is corrupt
+     * @throws CharConversionException if the symbol is greater than 255
+     */
+    @Override
+    public int read() throws IOException {
+        int symbol = readSymbol();
+        if (symbol > BYTE_MASK) {
+            throw new CharConversionException("Symbol does not fit a byte: "
+                    + symbol);
+        }
+        return symbol;
+    }
+
+    /**
+     * Reads decoded symbols as bytes into part of an array.
+     * @param b the array into which to read
+     * @param off the index at which to store the first symbol
+     * @param len the maximum number of symbols to read
+     * @return the number of symbols read, or -1 at the end of the stream
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    @Override
+    public int read(final byte[] b, final int off, final int len)
+            throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        while (n < len) {
+            int symbol = read();
+            if (symbol < 0) {
+                break;
+            }
+            b[off + n++] = (byte) symbol;
+        }
+        if (n == 0) {
+            return -1;
+        }
+        return n;
+    }
+
+    /**
+     * Reads the next decoded symbol.
+     * @return the next symbol, or -1 at the end of the stream
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    public int readSymbol() throws IOException {
+        refill();
+        if (this.available == 0) {
+            return -1;
+        }
+        long window = this.accumulator << (Long.SIZE - this.available);
+        int result;
+        try {
+            result = this.table.lookup(window, this.available);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Corrupt Huffman data.", ex);
+        }
+        if (result < 0) {
+            throw new EOFException("Truncated Huffman data.");
+        }
+        this.available -= HuffmanDecodeTable.lengthOf(result);
+        this.accumulator &= (1L << this.available) - 1;
+        return HuffmanDecodeTable.symbolOf(result);
+    }
+
+    /**
+     * Skips over decoded symbols.
+     * @param n the number of symbols to skip
+     * @return the number of symbols skipped
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    @Override
+    public long skip(final long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && readSymbol() >= 0) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * The number of symbols available without blocking is not known.
+     * @return 0
+     */
+    @Override
+    public int available() {
+        return 0;
+    }
+
+    /**
+     * Mark and reset are not supported.
+     * @return false
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Moves encoded bits into the accumulator until it holds at least
+     * MAX_CODE_LENGTH bits or the data is exhausted.
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    private void refill() throws IOException {
+        while (!this.done && this.available <= MAX_CODE_LENGTH) {
+            if (this.limit - this.position <= LOOKAHEAD && !this.eof) {
+                fillBuffer();
+                continue;
+            }
+            int remaining = this.limit - this.position;
+            if (remaining > LOOKAHEAD) {
+                addBits(this.buffer[this.position++] & BYTE_MASK,
+                        Byte.SIZE);
+            } else if (remaining == LOOKAHEAD) {
+                int last = this.buffer[this.position] & BYTE_MASK;
+                int padding = this.buffer[this.position + 1];
+                if (padding < 0 || padding >= Byte.SIZE) {
+                    throw new IOException("Corrupt Huffman trailer.");
+                }
+                addBits(last >>> padding, Byte.SIZE - padding);
+                this.position += LOOKAHEAD;
+                this.done = true;
+            } else if (remaining == 1) {
+                if (this.buffer[this.position] != 0) {
+                    throw new IOException("Corrupt Huffman trailer.");
+                }
+                this.position++;
+                this.done = true;
+            } else {
+                throw new EOFException("Missing Huffman trailer.");
+            }
+        }
+    }
+
+    /**
+     * Appends bits to the accumulator.
+     * @param bits the bits to append, right-aligned
+     * @param length the number of bits to append
+     */
+    private void addBits(final int bits, final int length) {
+        this.accumulator = (this.accumulator << length) | bits;
+        this.available += length;
+    }
+
+    /**
+     * Moves unread bytes to the front of the buffer and reads more from the
+     * underlying stream.
+     * @throws IOException if an IO error occurs
+     */
+    private void fillBuffer() throws IOException {
+        int remaining = this.limit - this.position;
+        System.arraycopy(this.buffer, this.position, this.buffer, 0,
+                remaining);
+        this.position = 0;
+        this.limit = remaining;
+        int n = this.in.read(this.buffer, this.limit,
+                this.buffer.length - this.limit);
+        if (n < 0) {
+            this.eof = true;
+        } else {
+            this.limit += n;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for HuffmanInputStream.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class HuffmanInputStreamTest {
+
+    /** Default string seed. */
+    private static final String SEED = "roadrunner";
+
+    /** Length of the large round-trip input; spans several buffers. */
+    private static final int LARGE_LENGTH = 100000;
+
+    /**
+     * Encodes text through a HuffmanOutputStream.
+     * @param code the Huffman code
+     * @param text the text to encode
+     * @return the encoded bytes
+     * @throws IOException if unexpected IO error
+     */
+    private static byte[] encode(final HuffmanCode code, final String text)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (HuffmanOutputStream out = new HuffmanOutputStream(bytes, code)) {
+            out.write(text);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes bytes through a HuffmanInputStream.
+     * @param code the Huffman code
+     * @param encoded the encoded bytes
+     * @return the decoded text
+     * @throws IOException if unexpected IO error
+     */
+    private static String decode(final HuffmanCode code, final byte[] encoded)
+            throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (HuffmanInputStream in = new HuffmanInputStream(
+                new ByteArrayInputStream(encoded), code)) {
+            int symbol;
+            while ((symbol = in.readSymbol()) >= 0) {
+                text.append((char) symbol);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Tests round trips of short strings.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void roundTripTest() throws IOException {
+        HuffmanCode hc = new HuffmanCode(SEED);
+        String[] words = {"", "unordered", "rodeo", "neuron", "roadrunner"};
+        for (String word : words) {
+            assertEquals(decode(hc, encode(hc, word)), word);
+        }
+    }
+
+    /**
+     * Tests a round trip of bytes larger than the stream buffers.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void largeByteRoundTripTest() throws IOException {
+        Random random = new Random(LARGE_LENGTH);
+        byte[] data = new byte[LARGE_LENGTH];
+        StringBuilder seed = new StringBuilder();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (random.nextGaussian() * 20);
+            seed.append((char) (data[i] & 0xFF));
+        }
+        HuffmanCode hc = new HuffmanCode(seed.toString());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (HuffmanOutputStream out = new HuffmanOutputStream(bytes, hc)) {
+            out.write(data);
+        }
+        byte[] decoded = new byte[LARGE_LENGTH];
+        try (HuffmanInputStream in = new HuffmanInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()), hc)) {
+            int n = 0;
+            int read;
+            while ((read = in.read(decoded, n, decoded.length - n)) > 0) {
+                n += read;
+            }
+            assertEquals(n, LARGE_LENGTH);
+            assertEquals(in.read(), -1);
+        }
+        assertEquals(Arrays.equals(decoded, data), true);
+    }
+
+    /**
+     * Verifies exception for data missing its trailer.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = EOFException.class)
+    public void missingTrailerException() throws IOException {
+        HuffmanCode hc = new HuffmanCode(SEED);
+        decode(hc, new byte[0]);
+    }
+}
@@ -0,0 +1,226 @@
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * An output stream filter that Huffman-encodes the symbols written to it
+ * with an existing {@link HuffmanCode}. Encoded bits are packed most
+ * significant bit first into a fixed-size byte buffer which is written to
+ * the underlying stream whenever it fills, so memory use is constant
+ * regardless of how much is written.
+ * <p>
+ * Each byte written with {@link #write(int)} is encoded as the symbol with
+ * the same value (0 to 255); any char may be encoded with
+ * {@link #writeSymbol(int)}. When the stream is finished, the final partial
+ * byte is padded with 0 bits and followed by a trailer byte holding the
+ * number of padding bits, which {@link HuffmanInputStream} uses to find the
+ * end of the encoded data.
+ * </p>
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class HuffmanOutputStream extends FilterOutputStream {
+
+    /** Size in bytes of the output buffer. */
+    public static final int BUFFER_SIZE = 8192;
+
+    /** Largest number of bits appended to the accumulator at once. */
+    private static final int MAX_APPEND = Long.SIZE - Byte.SIZE;
+
+    /** Mask of the bits of a byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** Code length indexed by symbol; 0 if the symbol is not in the code. */
+    private final int[] lengths;
+    /** Code indexed by symbol, right-aligned. */
+    private final long[] codes;
+    /** Buffer of encoded bytes not yet written to the underlying stream. */
+    private final byte[] buffer;
+    /** Number of bytes in the buffer. */
+    private int count;
+    /** Pending bits not yet forming a full byte, right-aligned. */
+    private long accumulator;
+    /** Number of pending bits in the accumulator. */
+    private int pending;
+    /** Whether the trailer has been written. */
+    private boolean finished;
+
+    /**
+     * Creates a stream that encodes with the given Huffman code.
+     * @param out the underlying output stream
+     * @param code the Huffman code with which to encode
+     * @throws IllegalArgumentException if a code is longer than
+     *         {@link HuffmanInputStream#MAX_CODE_LENGTH} bits, so that the
+     *         stream could not be read back
+     */
+    public HuffmanOutputStream(final OutputStream out,
+                               final HuffmanCode code)
+            throws IllegalArgumentException {
+        super(out);
+        Map<Character, StringOfBits> map = code.getCode();
+        int maxSymbol = 0;
+        for (char symbol : map.keySet()) {
+            maxSymbol = Math.max(maxSymbol, symbol);
+        }
+        this.lengths = new int[maxSymbol + 1];
+        this.codes = new long[maxSymbol + 1];
+        map.forEach((symbol, bits) -> {
+            if (bits.length() > HuffmanInputStream.MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Code length too long.");
+            }
+            this.lengths[symbol] = bits.length();
+            this.codes[symbol] = bits.bitsAt(0, bits.length());
+        });
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Encodes the symbol whose value is the low-order byte of the parameter.
+     * @param b the byte to encode
+     * @throws IOException if an IO error occurs or the stream is finished
+     * @throws IllegalArgumentException if the symbol is not in the code
+     */
+    @Override
+    public void write(final int b) throws IOException {
+        writeSymbol(b & BYTE_MASK);
+    }
+
+    /**
+     * Encodes each byte in the given range as a symbol.
+     * @param b the bytes to encode
+     * @param off the index of the first byte to encode
+     * @param len the number of bytes to encode
+     * @throws IOException if an IO error occurs or the stream is finished
+     * @throws IllegalArgumentException if a symbol is not in the code
+     */
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+        for (int i = off; i < off + len; i++) {
+            writeSymbol(b[i] & BYTE_MASK);
+        }
+    }
+
+    /**
+     * Encodes each char of the given text as a symbol.
+     * @param text the text to encode
+     * @throws IOException if an IO error occurs or the stream is finished
+     * @throws IllegalArgumentException if a symbol is not in the code
+     */
+    public void write(final CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            writeSymbol(text.charAt(i));
+        }
+    }
+
+    /**
+     * Encodes a single symbol.
+     * @param symbol the symbol to encode
+     * @throws IOException if an IO error occurs or the stream is finished
+     * @throws IllegalArgumentException if the symbol is not in the code
+     */
+    public void writeSymbol(final int symbol) throws IOException {
+        if (this.finished) {
+            throw new IOException("Stream finished.");
+        }
+        if (symbol < 0 || symbol >= this.lengths.length
+                || this.lengths[symbol] == 0) {
+            throw new IllegalArgumentException("Symbol not in code: "
+                    + symbol);
+        }
+        int length = this.lengths[symbol];
+        long code = this.codes[symbol];
+        if (length > MAX_APPEND) {
+            appendBits(code >>> MAX_APPEND, length - MAX_APPEND);
+            length = MAX_APPEND;
+        }
+        appendBits(code, length);
+    }
+
+    /**
+     * Writes all complete encoded bytes to the underlying stream and flushes
+     * it. Bits that do not yet fill a byte remain pending.
+     * @throws IOException if an IO error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        this.out.flush();
+    }
+
+    /**
+     * Pads and writes any pending bits and the trailer without closing the
+     * underlying stream. No further symbols may be written.
+     * @throws IOException if an IO error occurs
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+        int padding = 0;
+        if (this.pending > 0) {
+            padding = Byte.SIZE - this.pending;
+            appendBits(0L, padding);
+        }
+        putByte(padding);
+        flushBuffer();
+        this.finished = true;
+    }
+
+    /**
+     * Finishes the encoded data and closes the underlying stream.
+     * @throws IOException if an IO error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * Appends bits to the accumulator and moves each completed byte to the
+     * buffer.
+     * @param bits the bits to append, right-aligned
+     * @param length the number of bits to append, at most 56
+     * @throws IOException if an IO error occurs
+     */
+    private void appendBits(final long bits, final int length)
+            throws IOException {
+        long mask = (1L << length) - 1;
+        this.accumulator = (this.accumulator << length) | (bits & mask);
+        this.pending += length;
+        while (this.pending >= Byte.SIZE) {
+            this.pending -= Byte.SIZE;
+            putByte((int) (this.accumulator >>> this.pending));
+        }
+        this.accumulator &= (1L << this.pending) - 1;
+    }
+
+    /**
+     * Adds a byte to the buffer, writing the buffer out if it is full.
+     * @param b the byte to add
+     * @throws IOException if an IO error occurs
+     */
+    private void putByte(final int b) throws IOException {
+        if (this.count == this.buffer.length) {
+            flushBuffer();
+        }
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    /**
+     * Writes the buffer to the underlying stream.
+     * @throws IOException if an IO error occurs
+     */
+    private void flushBuffer() throws IOException {
+        if (this.count > 0) {
+            this.out.write(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
+}
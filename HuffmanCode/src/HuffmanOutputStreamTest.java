@@ -0,0 +1,138 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for HuffmanOutputStream.
+ *
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public class HuffmanOutputStreamTest {
+
+    /** Symbol-to-code map for "roadrunner". */
+    private static final Map<Character, StringOfBits> MAP;
+
+    /** Initialization for MAP. */
+    static {
+        MAP = new HashMap<>();
+        MAP.put('r', new StringOfBits("11"));
+        MAP.put('o', new StringOfBits("100"));
+        MAP.put('a', new StringOfBits("001"));
+        MAP.put('d', new StringOfBits("1011"));
+        MAP.put('u', new StringOfBits("1010"));
+        MAP.put('n', new StringOfBits("01"));
+        MAP.put('e', new StringOfBits("000"));
+    }
+
+    /**
+     * Builds a code for the bytes 0 to longest whose codes are 1, 01,
+     * 001 and so on, the last two being longest bits long.
+     * @param longest the length of the longest code
+     * @return the code
+     */
+    private static HuffmanCode unaryCode(final int longest) {
+        Map<Character, StringOfBits> map = new HashMap<>();
+        StringOfBits zeros = new StringOfBits();
+        for (int symbol = 0; symbol < longest; symbol++) {
+            map.put((char) symbol, new StringOfBits(zeros).append(1));
+            zeros.append(0);
+        }
+        map.put((char) longest, zeros);
+        return new HuffmanCode(map);
+    }
+
+    /**
+     * Verifies encoded bits are packed and padded, followed by the trailer.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void packedOutputTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HuffmanOutputStream out =
+                new HuffmanOutputStream(bytes, new HuffmanCode(MAP));
+        // "road" encodes as 11 100 001 1011 = 111000011011
+        out.write("road");
+        out.close();
+        byte[] result = bytes.toByteArray();
+        assertEquals(result.length, 3);
+        assertEquals(result[0] & 0xFF, 0b11100001);
+        assertEquals(result[1] & 0xFF, 0b10110000);
+        assertEquals(result[2], 4);
+    }
+
+    /**
+     * Verifies an empty stream consists of the trailer alone.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void emptyOutputTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new HuffmanOutputStream(bytes, new HuffmanCode(MAP)).close();
+        assertEquals(bytes.size(), 1);
+        assertEquals(bytes.toByteArray()[0], 0);
+    }
+
+    /**
+     * Verifies that codes of the longest length the input stream accepts
+     * are written and read back.
+     * @throws IOException if unexpected IO error
+     */
+    @Test
+    public void longestCodeTest() throws IOException {
+        final int longest = HuffmanInputStream.MAX_CODE_LENGTH;
+        HuffmanCode code = unaryCode(longest);
+        byte[] data = new byte[2 * longest + 2];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (longest - i % (longest + 1));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HuffmanOutputStream out = new HuffmanOutputStream(bytes, code);
+        out.write(data);
+        out.finish();
+        HuffmanInputStream in = new HuffmanInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()), code);
+        byte[] decoded = new byte[data.length];
+        assertEquals(data.length, in.read(decoded));
+        assertEquals(-1, in.read());
+        assertArrayEquals(data, decoded);
+    }
+
+    /**
+     * Verifies exception for a code too long for the input stream to read.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void codeTooLongException() {
+        new HuffmanOutputStream(new ByteArrayOutputStream(),
+                unaryCode(HuffmanInputStream.MAX_CODE_LENGTH + 1));
+    }
+
+    /**
+     * Verifies exception for a symbol not in the code.
+     * @throws IOException if unexpected IO error
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void unknownSymbolException() throws IOException {
+        new HuffmanOutputStream(new ByteArrayOutputStream(),
+                new HuffmanCode(MAP)).write("z");
+    }
+
+    /**
+     * Verifies exception for writing after the stream is finished.
+     * @throws IOException if expected IO error
+     */
+    @Test (expected = IOException.class)
+    public void writeAfterFinishException() throws IOException {
+        HuffmanOutputStream out = new HuffmanOutputStream(
+                new ByteArrayOutputStream(), new HuffmanCode(MAP));
+        out.finish();
+        out.write("r");
+    }
+}
@@ -1,6 +1,14 @@
+import java.util.Objects;
+
 /**
  * A HuffmanTree is a specialized BinaryTree used for developing and storing a
  * Huffman Code. Note that there is no empty tree constructor.
+ * <p>
+ * A tree is weighted either by Double frequencies or by exact long counts.
+ * {@link #fromCounts(long[])} builds a tree from counts with integer
+ * arithmetic throughout and a fixed rule for breaking ties, so the same
+ * counts always give the same tree.
+ * </p>
  *
  * @author Bennett Alex Myers
  * @version 15 October 2016
@@ -84,6 +92,151 @@ public class HuffmanTree extends BinaryTree<HuffmanTreeNodeValues>
         this(null, frequency, null, leftChild, rightChild);
     }
 
+    /**
+     * Integer weight constructor for leaf node.
+     * @param symbol the symbol stored in this node
+     * @param weight the number of occurrences of the symbol
+     */
+    public HuffmanTree(final Character symbol, final long weight) {
+        super(new HuffmanTreeNodeValues(symbol, weight, null));
+    }
+
+    /**
+     * Integer weight constructor for internal node. Sets symbol, code and
+     * frequency to null.
+     * @param weight the weight stored in this node
+     * @param leftChild the left child of this node
+     * @param rightChild the right child of this node
+     */
+    public HuffmanTree(final long weight,
+                       final HuffmanTree leftChild,
+                       final HuffmanTree rightChild) {
+        super(new HuffmanTreeNodeValues(null, weight, null),
+                leftChild,
+                rightChild);
+    }
+
+    /**
+     * Builds the Huffman tree for a histogram with integer weights. Nodes
+     * are merged lightest first; of two nodes with equal weight, a leaf
+     * comes before an internal node, leaves come in order of symbol, and
+     * internal nodes in the order they were made. The lighter node of each
+     * merge becomes the left child. The code lengths are therefore those
+     * of {@link CodeLengths#compute(long[])}.
+     * <p>
+     * The merge order is kept in a binary heap of node indices over
+     * primitive arrays, so no objects are made other than the nodes.
+     * </p>
+     * @param counts the number of occurrences of each symbol, indexed by
+     *               symbol; at most 65536 entries whose sum does not
+     *               exceed Long.MAX_VALUE
+     * @return the Huffman tree of the symbols that occur
+     * @throws IllegalArgumentException if the histogram is too long,
+     *         contains a negative count, or has no positive count
+     */
+    public static HuffmanTree fromCounts(final long[] counts)
+            throws IllegalArgumentException {
+        if (counts.length > Character.MAX_VALUE + 1) {
+            throw new IllegalArgumentException("Histogram too long.");
+        }
+        int m = 0;
+        for (long count : counts) {
+            if (count < 0) {
+                throw new IllegalArgumentException("Negative count.");
+            }
+            if (count > 0) {
+                m++;
+            }
+        }
+        if (m == 0) {
+            throw new IllegalArgumentException("No symbols.");
+        }
+        // Leaves are nodes 0 to m - 1 in order of symbol and internal
+        // nodes follow in order of creation, so ties break by index.
+        HuffmanTree[] nodes = new HuffmanTree[2 * m - 1];
+        long[] weights = new long[2 * m - 1];
+        int[] heap = new int[m];
+        int leaf = 0;
+        for (int symbol = 0; symbol < counts.length; symbol++) {
+            if (counts[symbol] > 0) {
+                weights[leaf] = counts[symbol];
+                nodes[leaf] = new HuffmanTree((char) symbol, counts[symbol]);
+                heap[leaf] = leaf;
+                leaf++;
+            }
+        }
+        int size = m;
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(heap, size, i, weights);
+        }
+        for (int next = m; next < 2 * m - 1; next++) {
+            int left = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, 0, weights);
+            int right = heap[0];
+            weights[next] = weights[left] + weights[right];
+            nodes[next] = new HuffmanTree(weights[next],
+                    nodes[left], nodes[right]);
+            heap[0] = next;
+            siftDown(heap, size, 0, weights);
+        }
+        return nodes[2 * m - 2];
+    }
+
+    /**
+     * Restores heap order below a position of a heap of node indices.
+     * @param heap the node indices
+     * @param size the number of indices in the heap
+     * @param position the position whose index may be out of order
+     * @param weights the weight of each node
+     */
+    private static void siftDown(final int[] heap,
+                                 final int size,
+                                 final int position,
+                                 final long[] weights) {
+        int node = heap[position];
+        int i = position;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size
+                    && lighter(heap[child + 1], heap[child], weights)) {
+                child++;
+            }
+            if (!lighter(heap[child], node, weights)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = node;
+    }
+
+    /**
+     * Merge order of two nodes: by weight, then by index.
+     * @param a the index of the first node
+     * @param b the index of the second node
+     * @param weights the weight of each node
+     * @return true if node a is merged before node b
+     */
+    private static boolean lighter(final int a,
+                                   final int b,
+                                   final long[] weights) {
+        return weights[a] < weights[b]
+                || (weights[a] == weights[b] && a < b);
+    }
+
+    /**
+     * Creates a leaf HuffmanTree, so that trees restored from the compact
+     * binary format are HuffmanTrees throughout.
+     * @param value the values stored at the new node
+     * @return a new HuffmanTree with no children
+     */
+    @Override
+    protected BinaryTree<HuffmanTreeNodeValues> newTree(
+            final HuffmanTreeNodeValues value) {
+        return new HuffmanTree(value);
+    }
+
     /**
      * Returns the left child of this tree.
      * @return the left child; null if no such child
@@ -102,6 +255,15 @@ public class HuffmanTree extends BinaryTree<HuffmanTreeNodeValues>
         return (HuffmanTree) super.getRightChild();
     }
 
+    /**
+     * Returns the tree of which this tree is a child.
+     * @return the parent tree; null if this tree is not a child
+     */
+    @Override
+    public HuffmanTree getParent() {
+        return (HuffmanTree) super.getParent();
+    }
+
     /**
      * Retrieve the symbol stored in this root.
      * @return the symbol stored in this root
@@ -126,6 +288,14 @@ public class HuffmanTree extends BinaryTree<HuffmanTreeNodeValues>
         return getValue().getFrequency();
     }
 
+    /**
+     * Retrieve the integer weight stored in this root.
+     * @return the weight stored in this root; 0 if not set
+     */
+    public long getWeight() {
+        return getValue().getWeight();
+    }
+
     /**
      * Store the given parameter as the symbol of this tree root.
      * @param symbol the new symbol for this root
@@ -151,9 +321,18 @@ public class HuffmanTree extends BinaryTree<HuffmanTreeNodeValues>
     }
 
     /**
-     * Equals predicate considers the symbol and frequency only.
+     * Store the given parameter as the integer weight of this tree root.
+     * @param weight the new weight for this root
+     */
+    public void setWeight(final long weight) {
+        getValue().setWeight(weight);
+    }
+
+    /**
+     * Equals predicate considers the symbol, frequency and weight only.
      * @param o the object to check for equality
-     * @return true if both the symbol and the frequency agree; false otherwise
+     * @return true if the symbol, the frequency and the weight agree;
+     *         false otherwise
      * @see #hashCode()
      */
     @Override
@@ -182,47 +361,54 @@ public class HuffmanTree extends BinaryTree<HuffmanTreeNodeValues>
         } else {
             mycode += getSymbol().hashCode();
         }
-        return mycode + getFrequency().hashCode();
+        return mycode + Objects.hashCode(getFrequency())
+                + Long.hashCode(getWeight());
     }
 
     /**
      * <p>Compares this HuffmanTree with the parameter for order. Returns a
      * negative integer, zero, or a positive integer as this object is less
-     * than, equal to, or greater than the specified object. Comparison
-     * considers frequency only; <code>null</code> is considered to be lower
-     * than any other frequency value.</p>
-     *
-     * <p>Ensures that <code>sgn(x.compareTo(y) == -sgn(y.compareTo(x))</code>
-     * for all <code>x</code> and <code>y</code>. (This implies that
-     * <code>x.compareTo(y)</code> must throw an exception if and only if
-     * <code>y.compareTo(x)</code> throws an exception.)</p>
+     * than, equal to, or greater than the specified object. Trees that
+     * both have a frequency are compared by frequency, frequencies within
+     * EPSILON of each other being equal; trees that both have none are
+     * compared by integer weight. A tree with a frequency is not comparable
+     * with a tree without one.</p>
      *
-     * <p>The relation in transitive:
-     * <code>(x.compareTo(y)>0 && y.compareTo(z)>0)</code> implies
-     * <code>x.compareTo(z)>0</code>.</p>
+     * <p>Ensures that <code>sgn(x.compareTo(y)) == -sgn(y.compareTo(x))</code>
+     * for all <code>x</code> and <code>y</code>, and that
+     * <code>x.compareTo(y)</code> throws an exception if and only if
+     * <code>y.compareTo(x)</code> does.</p>
      *
-     * <p>Ensures that <code>x.compareTo(y)==0</code> implies that
-     * <code>sgn(x.compareTo(z)) == sgn(y.compareTo(z))</code>, for all
-     * <code>z</code>.</p>
-     *
-     * <p>The natural ordering is consistent with
-     * {@link #equals equals}, that is,
-     * <code>(x.compareTo(y)==0) == (x.equals(y))</code>.</p>
+     * <p>The natural ordering is not consistent with {@link #equals equals}:
+     * trees with different symbols or children compare as equal when their
+     * frequencies or weights are.</p>
      *
      * <p>In the foregoing description, the notation
      * <code>sgn</code>(<i>expression</i>) designated the mathematical
      * <i>signum</i> function, which is defined to return
      * one of <code>1</code>, <code>0</code>, or <code>-1</code> according to
-     * whether the value of expression is negative, zero, or positive.
+     * whether the value of expression is negative, zero, or positive.</p>
      * @param ht the object to be compared
      * @return a negative integer, zero, or a positive integer as this object
-     * is less than, equal to, or greater than the specified object.</p>
+     * is less than, equal to, or greater than the specified object.
+     * @throws IllegalArgumentException if exactly one of the trees has a
+     *         frequency
      */
-    public int compareTo(final HuffmanTree ht) {
-        if (Math.abs(this.getFrequency() - (ht.getFrequency())) < EPSILON) {
+    public int compareTo(final HuffmanTree ht)
+            throws IllegalArgumentException {
+        Double frequency = this.getFrequency();
+        Double other = ht.getFrequency();
+        if (frequency == null && other == null) {
+            return Long.compare(this.getWeight(), ht.getWeight());
+        }
+        if (frequency == null || other == null) {
+            throw new IllegalArgumentException(
+                    "Cannot compare frequency with weight.");
+        }
+        if (Math.abs(frequency - other) < EPSILON) {
             return 0;
         }
-        if (this.getFrequency() > ht.getFrequency()) {
+        if (frequency > other) {
             return 1;
         } else {
             return -1;
@@ -230,20 +416,16 @@ public class HuffmanTree extends BinaryTree<HuffmanTreeNodeValues>
     }
 
     /**
-     * Utility method that compares symbol and frequency stored in two roots.
+     * Utility method that compares symbol, frequency and weight stored in
+     * two roots.
      * @param ht1 first root for comparison
      * @param ht2 second root for comparison
-     * @return true if symbol and frequency agree.
+     * @return true if symbol, frequency and weight agree.
      */
     private static boolean compareTrees(final HuffmanTree ht1,
                                         final HuffmanTree ht2) {
-        if (ht1.getSymbol() == null && ht2.getSymbol() == null) {
-            return ht1.getFrequency().equals(ht2.getFrequency());
-        }
-        if (ht1.getSymbol() != null && ht2.getSymbol() != null) {
-            return (ht1.getSymbol().equals(ht2.getSymbol()))
-                    && (ht1.getFrequency().equals(ht2.getFrequency()));
-        }
-        return false;
+        return Objects.equals(ht1.getSymbol(), ht2.getSymbol())
+                && Objects.equals(ht1.getFrequency(), ht2.getFrequency())
+                && ht1.getWeight() == ht2.getWeight();
     }
 }
@@ -1,20 +1,116 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
 /**
  * The collected values stored at a HuffmanTree node which include:
  * {@link java.lang.Character Character} symbol,
- * {@link java.lang.Double Double} frequency, and
+ * {@link java.lang.Double Double} frequency,
+ * <code>long</code> weight, and
  * {@link StringOfBits StringOfBits} code.
+ * Trees built from integer counts use the weight, an exact count, and
+ * leave the frequency null.
  *
  * @author Bennett Alex Myers
  * @version 12 October 2016
  */
 public class HuffmanTreeNodeValues {
 
+    /** Flag marking a stored symbol in the binary form. */
+    private static final int HAS_SYMBOL = 1;
+    /** Flag marking a stored frequency in the binary form. */
+    private static final int HAS_FREQUENCY = 2;
+    /** Flag marking a stored code in the binary form. */
+    private static final int HAS_CODE = 4;
+    /** Flag marking a nonzero weight in the binary form. */
+    private static final int HAS_WEIGHT = 8;
+
+    /**
+     * Codec for saving HuffmanTrees in the compact binary format of
+     * {@link BinaryTree}. Each value is written as a byte of flags telling
+     * which fields are present, followed by those fields: the symbol as a
+     * char, the frequency as a double, the code as its length in bits
+     * followed by its words, and a nonzero weight as a long.
+     */
+    public static final ValueCodec<HuffmanTreeNodeValues> CODEC =
+            new ValueCodec<HuffmanTreeNodeValues>() {
+                @Override
+                public void write(final HuffmanTreeNodeValues value,
+                                  final DataOutput out) throws IOException {
+                    int flags = 0;
+                    if (value.nodeSymbol != null) {
+                        flags |= HAS_SYMBOL;
+                    }
+                    if (value.nodeFrequency != null) {
+                        flags |= HAS_FREQUENCY;
+                    }
+                    if (value.nodeCode != null) {
+                        flags |= HAS_CODE;
+                    }
+                    if (value.nodeWeight != 0) {
+                        flags |= HAS_WEIGHT;
+                    }
+                    out.writeByte(flags);
+                    if (value.nodeSymbol != null) {
+                        out.writeChar(value.nodeSymbol);
+                    }
+                    if (value.nodeFrequency != null) {
+                        out.writeDouble(value.nodeFrequency);
+                    }
+                    if (value.nodeCode != null) {
+                        out.writeInt(value.nodeCode.length());
+                        for (int i = 0; i < value.nodeCode.wordCount(); i++) {
+                            out.writeLong(value.nodeCode.wordAt(i));
+                        }
+                    }
+                    if (value.nodeWeight != 0) {
+                        out.writeLong(value.nodeWeight);
+                    }
+                }
+
+                @Override
+                public HuffmanTreeNodeValues read(final DataInput in)
+                        throws IOException {
+                    int flags = in.readUnsignedByte();
+                    HuffmanTreeNodeValues value = new HuffmanTreeNodeValues();
+                    if ((flags & HAS_SYMBOL) != 0) {
+                        value.nodeSymbol = in.readChar();
+                    }
+                    if ((flags & HAS_FREQUENCY) != 0) {
+                        value.nodeFrequency = in.readDouble();
+                    }
+                    if ((flags & HAS_CODE) != 0) {
+                        int length = in.readInt();
+                        if (length < 0) {
+                            throw new StreamCorruptedException(
+                                    "Negative code length.");
+                        }
+                        StringOfBits code = new StringOfBits();
+                        while (code.length() < length) {
+                            int count = Math.min(StringOfBits.WORD_SIZE,
+                                    length - code.length());
+                            long word = in.readLong();
+                            code.append(word >>> (StringOfBits.WORD_SIZE
+                                    - count), count);
+                        }
+                        value.nodeCode = code;
+                    }
+                    if ((flags & HAS_WEIGHT) != 0) {
+                        value.nodeWeight = in.readLong();
+                    }
+                    return value;
+                }
+            };
+
     /** The symbol stored in this node. */
     private Character nodeSymbol;
     /** The frequency stored in this node. */
     private Double nodeFrequency;
     /** The code stored in this node. */
     private StringOfBits nodeCode;
+    /** The integer weight stored in this node; 0 if not set. */
+    private long nodeWeight;
 
     /**
      * Constructor that sets all values to null.
@@ -39,6 +135,20 @@ public class HuffmanTreeNodeValues {
         this.nodeCode = code;
     }
 
+    /**
+     * Integer weight constructor. The frequency is left null.
+     * @param symbol the symbol
+     * @param weight the number of occurrences of the symbol
+     * @param code the code for the symbol
+     */
+    public HuffmanTreeNodeValues(final Character symbol,
+                                 final long weight,
+                                 final StringOfBits code) {
+        this.nodeSymbol = symbol;
+        this.nodeWeight = weight;
+        this.nodeCode = code;
+    }
+
     /**
      * Accesses the symbol.
      * @return the symbol
@@ -63,6 +173,14 @@ public class HuffmanTreeNodeValues {
         return this.nodeFrequency;
     }
 
+    /**
+     * Accesses the integer weight.
+     * @return the weight; 0 if not set
+     */
+    public long getWeight() {
+        return this.nodeWeight;
+    }
+
     /**
      * Modifies the symbol.
      * @param newsymbol the replacement symbol
@@ -87,6 +205,14 @@ public class HuffmanTreeNodeValues {
         this.nodeFrequency = newfrequency;
     }
 
+    /**
+     * Modifies the integer weight.
+     * @param newweight the replacement weight
+     */
+    public void setWeight(final long newweight) {
+        this.nodeWeight = newweight;
+    }
+
     @Override
     public String toString() {
         return "(" + this.nodeSymbol + ", "
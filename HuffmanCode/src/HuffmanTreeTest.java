@@ -1,3 +1,19 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertTrue;
@@ -5,6 +21,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for HuffmanTree
@@ -340,5 +357,399 @@ public class HuffmanTreeTest {
         assertTrue(RIGHT_CHILD.compareTo(ht1) < 0);
         assertTrue(ht1.compareTo(RIGHT_CHILD) > 0);
     }
-}
 
+    /**
+     * Verifies that trees with integer weights compare by weight.
+     */
+    @Test
+    public void compareToWeightTest() {
+        HuffmanTree light = new HuffmanTree('a', 2L);
+        HuffmanTree heavy = new HuffmanTree(3L, light, new HuffmanTree('b',
+                1L));
+        assertTrue(light.compareTo(heavy) < 0);
+        assertTrue(heavy.compareTo(light) > 0);
+        assertEquals(0, light.compareTo(new HuffmanTree('c', 2L)));
+    }
+
+    /**
+     * Verifies exception comparing a tree with a frequency to a tree with
+     * only a weight, in either order.
+     */
+    @Test
+    public void compareToMixedException() {
+        HuffmanTree weighted = new HuffmanTree('a', 2L);
+        try {
+            weighted.compareTo(RIGHT_CHILD);
+            fail("Expected IllegalArgumentException.");
+        } catch (IllegalArgumentException ex) {
+            // Expected.
+        }
+        try {
+            RIGHT_CHILD.compareTo(weighted);
+            fail("Expected IllegalArgumentException.");
+        } catch (IllegalArgumentException ex) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Verifies node count, leaf count, height and leaf predicate of the
+     * standard tree.
+     */
+    @Test
+    public void structureTest() {
+        HuffmanTree ht = generateStandardTestTree();
+        assertEquals(13, ht.numberOfNodes());
+        assertEquals(7, ht.numberOfLeaves());
+        assertEquals(4, ht.height());
+        assertFalse(ht.isLeaf());
+        assertTrue(ht.getLeftChild().getRightChild().isLeaf());
+        assertEquals(0, ht.getLeftChild().getRightChild().height());
+    }
+
+    /**
+     * Verifies that replacing a child deep in the tree updates the node
+     * count, leaf count and height of every ancestor.
+     */
+    @Test
+    public void setChildUpdatesAncestorsTest() {
+        HuffmanTree ht = generateStandardTestTree();
+        HuffmanTree ud = ht.getRightChild().getLeftChild().getRightChild();
+        ud.setLeftChild(new HuffmanTree(0.05,
+                new HuffmanTree(U), new HuffmanTree(E)));
+        assertEquals(15, ht.numberOfNodes());
+        assertEquals(8, ht.numberOfLeaves());
+        assertEquals(5, ht.height());
+        ht.getRightChild().setLeftChild(null);
+        assertEquals(8, ht.numberOfNodes());
+        assertEquals(4, ht.numberOfLeaves());
+        assertEquals(3, ht.height());
+        HuffmanTree n = ht.getLeftChild().getRightChild();
+        n.setRightChild(new HuffmanTree(D));
+        assertFalse(n.isLeaf());
+        assertEquals(9, ht.numberOfNodes());
+        assertEquals(4, ht.numberOfLeaves());
+        n.setRightChild(null);
+        assertTrue(n.isLeaf());
+        assertEquals(8, ht.numberOfNodes());
+        assertEquals(4, ht.numberOfLeaves());
+    }
+
+    /**
+     * Verifies that a deserialized tree has correct cached values and that
+     * its ancestors are updated when a child is replaced.
+     * @throws IOException if IO error
+     * @throws ClassNotFoundException if class could not be found
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void deserializedStructureTest()
+            throws IOException, ClassNotFoundException {
+        BinaryTree<String> tree = new BinaryTree<>("root",
+                new BinaryTree<>("left", new BinaryTree<>("ll"), null),
+                new BinaryTree<>("right"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tree);
+        }
+        BinaryTree<String> bt;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            bt = (BinaryTree<String>) in.readObject();
+        }
+        assertTrue(bt.equals(tree));
+        assertEquals(4, bt.numberOfNodes());
+        assertEquals(2, bt.numberOfLeaves());
+        assertEquals(2, bt.height());
+        bt.getLeftChild().setLeftChild(null);
+        assertEquals(3, bt.numberOfNodes());
+        assertEquals(1, bt.height());
+    }
+
+    /**
+     * Generates a balanced tree holding 1 to 7 in inorder.
+     * @return the tree
+     */
+    private static BinaryTree<Integer> generateSevenTree() {
+        return new BinaryTree<>(4,
+                new BinaryTree<>(2, new BinaryTree<>(1), new BinaryTree<>(3)),
+                new BinaryTree<>(6, new BinaryTree<>(5), new BinaryTree<>(7)));
+    }
+
+    /**
+     * Verifies the order of the value lists and iterators.
+     */
+    @Test
+    public void traversalOrderTest() {
+        BinaryTree<Integer> bt = generateSevenTree();
+        assertEquals(Arrays.asList(4, 2, 1, 3, 6, 5, 7), bt.preorderValues());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), bt.inorderValues());
+        assertEquals(Arrays.asList(1, 3, 2, 5, 7, 6, 4),
+                bt.postorderValues());
+        assertEquals(bt.postorderValues(),
+                BinaryTree.values(bt.postorderSubtrees()));
+        Iterator<BinaryTree<Integer>> it = bt.inorderIterator();
+        assertEquals(Integer.valueOf(1), it.next().getValue());
+        assertEquals(Integer.valueOf(2), it.next().getValue());
+        assertTrue(new BinaryTree<Integer>().preorderValues().isEmpty());
+        assertFalse(new BinaryTree<Integer>().iterator().hasNext());
+        HuffmanTree ht = generateStandardTestTree();
+        assertEquals(ht.numberOfNodes(), ht.preorderSubtrees().size());
+        assertEquals(ht.postorderSubtrees().get(12), ht);
+    }
+
+    /**
+     * Verifies that splitting a spliterator covers every node once and in
+     * order.
+     */
+    @Test
+    public void spliteratorTest() {
+        BinaryTree<Integer> bt = generateSevenTree();
+        Spliterator<BinaryTree<Integer>> rest = bt.spliterator();
+        assertEquals(7, rest.estimateSize());
+        Spliterator<BinaryTree<Integer>> prefix = rest.trySplit();
+        assertEquals(7, prefix.estimateSize() + rest.estimateSize());
+        StringBuilder sb = new StringBuilder();
+        prefix.forEachRemaining(t -> sb.append(t.getValue()));
+        rest.forEachRemaining(t -> sb.append(t.getValue()));
+        assertEquals("1325764", sb.toString());
+        List<Integer> values = bt.parallelStream()
+                .map(BinaryTree::getValue)
+                .collect(Collectors.toList());
+        assertEquals(bt.postorderValues(), values);
+        assertEquals(4, bt.stream().filter(BinaryTree::isLeaf).count());
+    }
+
+    /**
+     * Verifies that traversals of a degenerate tree do not overflow the
+     * call stack.
+     */
+    @Test
+    public void deepTraversalTest() {
+        final int depth = 200000;
+        BinaryTree<Integer> bt = new BinaryTree<>(0);
+        for (int i = 1; i < depth; i++) {
+            bt = new BinaryTree<>(i, null, bt);
+        }
+        assertEquals(depth, bt.preorderValues().size());
+        assertEquals(Integer.valueOf(0), bt.inorderValues().get(depth - 1));
+        assertEquals(Integer.valueOf(0), bt.postorderValues().get(0));
+        assertEquals(depth, bt.parallelStream().count());
+        assertEquals((long) depth * (depth - 1) / 2, bt.parallelStream()
+                .mapToLong(BinaryTree::getValue).sum());
+    }
+
+    /**
+     * Verifies that the compact binary format preserves shape and values.
+     * @throws IOException if IO error
+     */
+    @Test
+    public void binaryRoundTripTest() throws IOException {
+        BinaryTree<String> tree = new BinaryTree<>("root",
+                new BinaryTree<>("left", null, new BinaryTree<>("lr")),
+                new BinaryTree<>("right", new BinaryTree<>("rl"), null));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        tree.write(new DataOutputStream(bytes), ValueCodec.strings());
+        BinaryTree<String> bt = BinaryTree.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())),
+                ValueCodec.strings());
+        assertTrue(bt.equals(tree));
+        assertEquals(tree.preorderValues(), bt.preorderValues());
+        assertEquals(2, bt.numberOfLeaves());
+        bytes.reset();
+        new BinaryTree<String>().write(new DataOutputStream(bytes),
+                ValueCodec.strings());
+        assertTrue(BinaryTree.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())),
+                ValueCodec.strings()).isEmpty());
+    }
+
+    /**
+     * Verifies saving and restoring a HuffmanTree in the compact binary
+     * format, and that a corrupt file is not restored.
+     * @throws IOException if IO error
+     */
+    @Test
+    public void binarySaveRestoreTest() throws IOException {
+        File file = File.createTempFile("huffman", ".bin");
+        file.deleteOnExit();
+        String name = file.getPath();
+        HuffmanTree ht = generateStandardTestTree();
+        assertTrue(ht.save(name, HuffmanTreeNodeValues.CODEC));
+        HuffmanTree restored = new HuffmanTree(NEW_NODE_VALUES);
+        assertTrue(restored.restore(name, HuffmanTreeNodeValues.CODEC));
+        assertTrue(restored.equals(ht));
+        assertEquals(13, restored.numberOfNodes());
+        HuffmanTree d = restored.getRightChild().getLeftChild()
+                .getRightChild().getRightChild();
+        assertEquals(D.getSymbol(), d.getSymbol());
+        assertEquals(D.getCode().toString(), d.getCode().toString());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() / 2);
+            int b = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(b ^ 1);
+        }
+        HuffmanTree leaf = generateLeaf();
+        assertFalse(leaf.restore(name, HuffmanTreeNodeValues.CODEC));
+        assertTrue(leaf.isLeaf());
+        assertFalse(leaf.restore(name + ".missing",
+                HuffmanTreeNodeValues.CODEC));
+    }
+
+    /**
+     * Verifies that a corrupt node count is reported as corrupt or
+     * truncated data rather than allocating space for the nodes.
+     * @throws IOException if IO error
+     */
+    @Test
+    public void binaryCorruptCountTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(Integer.MAX_VALUE);
+        out.write(new byte[] {(byte) 0x80, 0, 0, 0});
+        try {
+            BinaryTree.read(new DataInputStream(new ByteArrayInputStream(
+                    bytes.toByteArray())), ValueCodec.strings());
+            fail("Expected EOFException.");
+        } catch (EOFException ex) {
+            // Expected: the shape bits end early.
+        }
+        File file = File.createTempFile("huffman", ".bin");
+        file.deleteOnExit();
+        String name = file.getPath();
+        assertTrue(generateStandardTestTree().save(name,
+                HuffmanTreeNodeValues.CODEC));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(Integer.BYTES + 1);
+            raf.writeInt(Integer.MAX_VALUE);
+        }
+        HuffmanTree leaf = generateLeaf();
+        assertFalse(leaf.restore(name, HuffmanTreeNodeValues.CODEC));
+        assertTrue(leaf.isLeaf());
+    }
+
+    /**
+     * Verifies the compact binary format on a degenerate tree.
+     * @throws IOException if IO error
+     */
+    @Test
+    public void deepBinaryRoundTripTest() throws IOException {
+        final int depth = 200000;
+        BinaryTree<Integer> bt = new BinaryTree<>(0);
+        for (int i = 1; i < depth; i++) {
+            bt = new BinaryTree<>(i, bt, null);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bt.write(new DataOutputStream(bytes), ValueCodec.integers());
+        BinaryTree<Integer> restored = BinaryTree.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())),
+                ValueCodec.integers());
+        assertEquals(depth, restored.numberOfNodes());
+        assertEquals(depth - 1, restored.height());
+        assertEquals(bt.postorderValues(), restored.postorderValues());
+    }
+
+    /**
+     * Verifies that Java serialization save is checked by checksum.
+     * @throws IOException if IO error
+     */
+    @Test
+    public void serialSaveRestoreTest() throws IOException {
+        File file = File.createTempFile("tree", ".ser");
+        file.deleteOnExit();
+        BinaryTree<String> tree = new BinaryTree<>("a",
+                new BinaryTree<>("b"), new BinaryTree<>("c"));
+        assertTrue(tree.save(file.getPath()));
+        BinaryTree<String> restored = new BinaryTree<>("x");
+        assertTrue(restored.restore(file.getPath()));
+        assertTrue(restored.equals(tree));
+        assertEquals(3, restored.numberOfNodes());
+    }
+
+    /**
+     * Verifies that a tree built from counts has the optimal depths of
+     * CodeLengths and is the same every time it is built.
+     */
+    @Test
+    public void fromCountsTest() {
+        long[] counts = new long[300];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = (i * 7919L) % 13;
+        }
+        counts[5] = 1000000L;
+        HuffmanTree tree = HuffmanTree.fromCounts(counts);
+        int[] depths = new int[counts.length];
+        leafDepths(tree, 0, depths);
+        assertTrue(Arrays.equals(CodeLengths.compute(counts), depths));
+        assertNull(tree.getFrequency());
+        assertEquals(Arrays.stream(counts).sum(), tree.getWeight());
+        HuffmanTree again = HuffmanTree.fromCounts(counts);
+        assertTrue(tree.equals(again));
+        assertEquals(tree.hashCode(), again.hashCode());
+    }
+
+    /**
+     * Verifies ties are broken by leaves first, then by symbol.
+     */
+    @Test
+    public void fromCountsTieTest() {
+        HuffmanTree tree = HuffmanTree.fromCounts(new long[] {0, 1, 1, 2});
+        assertEquals('\u0003', (char) tree.getLeftChild().getSymbol());
+        HuffmanTree pair = tree.getRightChild();
+        assertEquals('\u0001', (char) pair.getLeftChild().getSymbol());
+        assertEquals('\u0002', (char) pair.getRightChild().getSymbol());
+        HuffmanTree single = HuffmanTree.fromCounts(new long[] {0, 0, 4});
+        assertTrue(single.isLeaf());
+        assertEquals(4L, single.getWeight());
+    }
+
+    /**
+     * Verifies that trees weighted by counts compare by weight.
+     */
+    @Test
+    public void weightTest() {
+        HuffmanTree a = new HuffmanTree('a', 3L);
+        HuffmanTree b = new HuffmanTree('b', 5L);
+        HuffmanTree ab = new HuffmanTree(8L, a, b);
+        assertTrue(a.compareTo(b) < 0);
+        assertTrue(ab.compareTo(b) > 0);
+        assertTrue(a.equals(new HuffmanTree('a', 3L)));
+        assertFalse(a.equals(new HuffmanTree('a', 4L)));
+        assertEquals(a.hashCode(), new HuffmanTree('a', 3L).hashCode());
+        ab.setWeight(9L);
+        assertEquals(9L, ab.getWeight());
+    }
+
+    /**
+     * Records the depth of each leaf of a tree by symbol.
+     * @param tree the tree
+     * @param depth the depth of the tree's root
+     * @param depths the depth of each symbol's leaf
+     */
+    private static void leafDepths(final HuffmanTree tree,
+                                   final int depth,
+                                   final int[] depths) {
+        if (tree.isLeaf()) {
+            depths[tree.getSymbol()] = depth;
+            return;
+        }
+        leafDepths(tree.getLeftChild(), depth + 1, depths);
+        leafDepths(tree.getRightChild(), depth + 1, depths);
+    }
+
+    /**
+     * Verifies that parent links follow changes of children.
+     */
+    @Test
+    public void parentTest() {
+        HuffmanTree a = new HuffmanTree('a', 1L);
+        HuffmanTree b = new HuffmanTree('b', 2L);
+        HuffmanTree ab = new HuffmanTree(3L, a, b);
+        assertNull(ab.getParent());
+        assertTrue(a.getParent() == ab);
+        ab.setLeftChild(null);
+        assertNull(a.getParent());
+        assertTrue(b.getParent() == ab);
+    }
+}
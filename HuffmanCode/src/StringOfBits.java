@@ -1,21 +1,55 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Represents a string of bit values (0 or 1).
+ * <p>
+ * Bits are packed 64 to a word in a <code>long</code> array. Bit
+ * <code>i</code> of the string is stored in word <code>i / 64</code>, most
+ * significant bit first, so that consecutive bits of the string read as a
+ * big-endian integer. Bits beyond <code>length()</code> are always 0.
+ * </p>
+ * <p>
+ * Because of this, comparisons, hashing, prefix tests and conversions
+ * work on whole words rather than bit by bit. Bit strings are equal when
+ * they have the same bits, and are ordered lexicographically with a
+ * proper prefix before the strings it begins.
+ * </p>
  *
  * @author Bennett Alex Myers
  * @version 17 October 2016
  */
-public class StringOfBits {
+public class StringOfBits implements Comparable<StringOfBits> {
 
-    /** Internal bit array. */
-    private ArrayList<Integer> bits;
+    /** Number of bits stored in each word of the internal array. */
+    public static final int WORD_SIZE = Long.SIZE;
+
+    /** Shift converting a bit index to a word index. */
+    private static final int WORD_SHIFT = 6;
+
+    /** Mask converting a bit index to an offset within its word. */
+    private static final int WORD_MASK = WORD_SIZE - 1;
+
+    /** Initial number of words allocated for a new bit string. */
+    private static final int INITIAL_WORDS = 1;
+
+    /** Mask of the bits of a byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** Multiplier combining word hashes, as in java.util.Arrays. */
+    private static final int HASH_MULTIPLIER = 31;
+
+    /** Internal packed bit array. */
+    private long[] words;
+
+    /** Number of bits in this string. */
+    private int bitLength;
 
     /**
      * Constructs the empty bit string; length == 0.
      */
     public StringOfBits() {
-        this.bits = new ArrayList<>(0);
+        this.words = new long[INITIAL_WORDS];
+        this.bitLength = 0;
     }
 
     /**
@@ -23,10 +57,9 @@ public class StringOfBits {
      * @param sb the object to be cloned
      */
     public StringOfBits(final StringOfBits sb) {
-        this.bits = new ArrayList<>();
-        for (int i = 0; i < sb.length(); i++) {
-            this.bits.add(sb.intAt(i));
-        }
+        this.words = Arrays.copyOf(sb.words,
+                Math.max(INITIAL_WORDS, wordsFor(sb.bitLength)));
+        this.bitLength = sb.bitLength;
     }
 
     /**
@@ -36,12 +69,66 @@ public class StringOfBits {
      * @param chars the sequence to convert into bits
      */
     public StringOfBits(final CharSequence chars) {
+        this();
         String bitString = chars.toString();
         if (bitString.matches("[01]*")) {
-            this.bits = toBitList(bitString);
-        } else {
-            this.bits = new ArrayList<>(0);
+            append(bitString);
+        }
+    }
+
+    /**
+     * Constructs a bit string from the leading bits of a byte array, most
+     * significant bit of each byte first.
+     * @param bytes the packed bits
+     * @param length the number of bits to take
+     * @return the bit string of the first <code>length</code> bits
+     * @throws IllegalArgumentException if length is negative or greater
+     *         than the number of bits in the array
+     */
+    public static StringOfBits valueOf(final byte[] bytes, final int length)
+            throws IllegalArgumentException {
+        if (length < 0 || length > (long) bytes.length * Byte.SIZE) {
+            throw new IllegalArgumentException("Length out of range.");
+        }
+        StringOfBits bits = new StringOfBits();
+        bits.ensureCapacity(length);
+        for (int i = 0; i < wordsFor(length); i++) {
+            long word = 0L;
+            for (int b = 0; b < Long.BYTES; b++) {
+                int index = i * Long.BYTES + b;
+                long value = 0L;
+                if (index < bytes.length) {
+                    value = bytes[index] & BYTE_MASK;
+                }
+                word = (word << Byte.SIZE) | value;
+            }
+            bits.words[i] = word;
+        }
+        bits.bitLength = length;
+        bits.clearTail();
+        return bits;
+    }
+
+    /**
+     * Constructs a bit string from the leading bits of an array of words,
+     * packed as by {@link #toLongArray()}.
+     * @param packed the packed bits
+     * @param length the number of bits to take
+     * @return the bit string of the first <code>length</code> bits
+     * @throws IllegalArgumentException if length is negative or greater
+     *         than the number of bits in the array
+     */
+    public static StringOfBits valueOf(final long[] packed, final int length)
+            throws IllegalArgumentException {
+        if (length < 0 || length > (long) packed.length * WORD_SIZE) {
+            throw new IllegalArgumentException("Length out of range.");
         }
+        StringOfBits bits = new StringOfBits();
+        bits.ensureCapacity(length);
+        System.arraycopy(packed, 0, bits.words, 0, wordsFor(length));
+        bits.bitLength = length;
+        bits.clearTail();
+        return bits;
     }
 
     /**
@@ -49,7 +136,7 @@ public class StringOfBits {
      * @return the number of bits in this string
      */
     public int length() {
-        return bits.size();
+        return this.bitLength;
     }
 
     /**
@@ -60,8 +147,7 @@ public class StringOfBits {
      * @return a reference to this bit string
      */
     public StringOfBits append(final char c) {
-        this.bits.add(charToInt(c));
-        return this;
+        return appendBit(charToInt(c));
     }
 
     /**
@@ -71,8 +157,7 @@ public class StringOfBits {
      * @return a reference to this bit string
      */
     public StringOfBits append(final boolean b) {
-        this.bits.add(booleanToInt(b));
-        return this;
+        return appendBit(booleanToInt(b));
     }
 
     /**
@@ -83,8 +168,7 @@ public class StringOfBits {
      * @return a reference to this bit string
      */
     public StringOfBits append(final int i) {
-        this.bits.add(constrainInt(i));
-        return this;
+        return appendBit(constrainInt(i));
     }
 
     /**
@@ -96,22 +180,127 @@ public class StringOfBits {
      * @return a reference to this bit string
      */
     public StringOfBits append(final CharSequence str) {
-        this.bits.addAll(toBitList(str.toString()));
+        ensureCapacity(this.bitLength + str.length());
+        for (int i = 0; i < str.length(); i++) {
+            appendBit(charToInt(str.charAt(i)));
+        }
         return this;
     }
 
     /**
-     * Appends the parameter to this bit string.
+     * Appends the parameter to this bit string, one word at a time.
      * @param bitstr a bit string to be appended
      * @return a reference to this bit string
      */
     public StringOfBits append(final StringOfBits bitstr) {
-        for (int i = 0; i < bitstr.length(); i++) {
-            this.bits.add(bitstr.intAt(i));
+        int otherLength = bitstr.bitLength;
+        ensureCapacity(this.bitLength + otherLength);
+        int fullWords = otherLength >>> WORD_SHIFT;
+        for (int w = 0; w < fullWords; w++) {
+            append(bitstr.words[w], WORD_SIZE);
+        }
+        int remainder = otherLength & WORD_MASK;
+        if (remainder > 0) {
+            append(bitstr.words[fullWords] >>> (WORD_SIZE - remainder),
+                    remainder);
         }
         return this;
     }
 
+    /**
+     * Appends the low-order <code>count</code> bits of the parameter to this
+     * bit string, most significant of those bits first. For example,
+     * <code>append(0b110, 3)</code> appends "110".
+     * @param bits the bits to append, right-aligned
+     * @param count the number of bits to append, between 0 and 64
+     * @return a reference to this bit string
+     * @throws IllegalArgumentException if count is negative or greater
+     *         than 64
+     */
+    public StringOfBits append(final long bits, final int count)
+            throws IllegalArgumentException {
+        if (count < 0 || count > WORD_SIZE) {
+            throw new IllegalArgumentException("Count must be 0 to 64.");
+        }
+        if (count == 0) {
+            return this;
+        }
+        ensureCapacity(this.bitLength + count);
+        long value = bits;
+        if (count < WORD_SIZE) {
+            value &= (1L << count) - 1;
+        }
+        int index = this.bitLength >>> WORD_SHIFT;
+        int free = WORD_SIZE - (this.bitLength & WORD_MASK);
+        if (count <= free) {
+            this.words[index] |= value << (free - count);
+        } else {
+            int spill = count - free;
+            this.words[index] |= value >>> spill;
+            this.words[index + 1] |= value << (WORD_SIZE - spill);
+        }
+        this.bitLength += count;
+        return this;
+    }
+
+    /**
+     * Returns <code>count</code> consecutive bits starting at the specified
+     * index, right-aligned in a long with the bit at <code>index</code> as
+     * the most significant. Bits past the end of this string read as 0.
+     * @param index the index of the first bit to read
+     * @param count the number of bits to read, between 0 and 64
+     * @return the requested bits as a big-endian integer
+     * @throws IndexOutOfBoundsException if index is negative or greater than
+     * length()
+     * @throws IllegalArgumentException if count is negative or greater
+     *         than 64
+     */
+    public long bitsAt(final int index, final int count)
+            throws IndexOutOfBoundsException, IllegalArgumentException {
+        if (index > length() || index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (count < 0 || count > WORD_SIZE) {
+            throw new IllegalArgumentException("Count must be 0 to 64.");
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        int wordIndex = index >>> WORD_SHIFT;
+        int offset = index & WORD_MASK;
+        long window = wordAt(wordIndex) << offset;
+        if (offset != 0 && offset + count > WORD_SIZE) {
+            window |= wordAt(wordIndex + 1) >>> (WORD_SIZE - offset);
+        }
+        return window >>> (WORD_SIZE - count);
+    }
+
+    /**
+     * Returns the word of 64 packed bits at the specified word index; bit
+     * <code>64 * wordIndex</code> of this string is the most significant bit
+     * of the result. Words past the end of this string read as 0.
+     * @param wordIndex the index of the desired word
+     * @return the packed bits of the specified word
+     * @throws IndexOutOfBoundsException if wordIndex is negative
+     */
+    public long wordAt(final int wordIndex) throws IndexOutOfBoundsException {
+        if (wordIndex < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (wordIndex >= this.words.length) {
+            return 0L;
+        }
+        return this.words[wordIndex];
+    }
+
+    /**
+     * Returns the number of words needed to hold this bit string.
+     * @return the number of 64-bit words spanned by this string
+     */
+    public int wordCount() {
+        return wordsFor(this.bitLength);
+    }
+
     /**
      * Returns a char corresponding to the bit at the specified index.
      * @param index the index of the desired bit value
@@ -120,10 +309,7 @@ public class StringOfBits {
      * or equal to length()
      */
     public char charAt(final int index) throws IndexOutOfBoundsException {
-        if (index >= length() || index < 0) {
-            throw new IndexOutOfBoundsException();
-        }
-        if (bits.get(index) == 0) {
+        if (intAt(index) == 0) {
             return '0';
         } else {
             return '1';
@@ -142,7 +328,7 @@ public class StringOfBits {
         if (index >= length() || index < 0) {
             throw new IndexOutOfBoundsException();
         }
-        return bits.get(index);
+        return getBit(index);
     }
 
     /**
@@ -153,10 +339,7 @@ public class StringOfBits {
      * or equal to length()
      */
     public boolean booleanAt(final int index) throws IndexOutOfBoundsException {
-        if (index >= length() || index < 0) {
-            throw new IndexOutOfBoundsException();
-        }
-        return bits.get(index) == 1;
+        return intAt(index) == 1;
     }
 
     /**
@@ -166,7 +349,7 @@ public class StringOfBits {
      * @param c the new value ('0' == 0; '1' == 1)
      */
     public void setBitAt(final int index, final char c) {
-        this.bits = setBitAt(this.bits, index, charToInt(c));
+        putBit(index, charToInt(c));
     }
 
     /**
@@ -176,7 +359,7 @@ public class StringOfBits {
      * @param i the new value (0 == 0; 1 == 1)
      */
     public void setBitAt(final int index, final int i) {
-        this.bits = setBitAt(this.bits, index, constrainInt(i));
+        putBit(index, constrainInt(i));
     }
 
     /**
@@ -185,55 +368,259 @@ public class StringOfBits {
      * @param b the new value (false == 0; true == 1)
      */
     public void setBitAt(final int index, final boolean b) {
-        this.bits = setBitAt(this.bits, index, booleanToInt(b));
+        putBit(index, booleanToInt(b));
     }
 
     /**
-     * Takes a list of bits and returns the result of setting the bit at the
-     * specified index.
-     * @param bitList the input list of bits
-     * @param index the index of the bit to modify
-     * @param bit the new bit value
-     * @return a new bit list which is a copy of the original with the
-     *         specified index modified
-     */
-    private static ArrayList<Integer> setBitAt(final ArrayList<Integer> bitList,
-                                        final int index,
-                                        final int bit) {
-        ArrayList<Integer> modifiedBits = new ArrayList<>(bitList);
-        if (index < bitList.size()) {
-            modifiedBits.set(index, bit);
-        } else {
-            while (modifiedBits.size() < index) {
-                modifiedBits.add(0);
+     * Returns the bits from index <code>from</code> up to but not including
+     * index <code>to</code> as a new bit string.
+     * @param from the index of the first bit
+     * @param to the index just past the last bit
+     * @return the bits of the range
+     * @throws IndexOutOfBoundsException if from is negative, to is greater
+     *         than length(), or from is greater than to
+     */
+    public StringOfBits subBits(final int from, final int to)
+            throws IndexOutOfBoundsException {
+        if (from < 0 || to > this.bitLength || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        StringOfBits bits = new StringOfBits();
+        bits.ensureCapacity(to - from);
+        for (int i = from; i < to; i += WORD_SIZE) {
+            int count = Math.min(WORD_SIZE, to - i);
+            bits.append(bitsAt(i, count), count);
+        }
+        return bits;
+    }
+
+    /**
+     * Tests whether this bit string begins with the given bits.
+     * @param prefix the bits to look for
+     * @return <code>true</code> if the first bits of this string are those
+     * of prefix; <code>false</code> otherwise
+     */
+    public boolean startsWith(final StringOfBits prefix) {
+        int n = prefix.bitLength;
+        if (n > this.bitLength) {
+            return false;
+        }
+        int fullWords = n >>> WORD_SHIFT;
+        for (int w = 0; w < fullWords; w++) {
+            if (this.words[w] != prefix.words[w]) {
+                return false;
             }
-            modifiedBits.add(bit);
         }
-        return modifiedBits;
+        int remainder = n & WORD_MASK;
+        return remainder == 0
+                || ((this.words[fullWords] ^ prefix.words[fullWords])
+                >>> (WORD_SIZE - remainder)) == 0;
+    }
+
+    /**
+     * Counts the 1 bits of this bit string.
+     * @return the number of bits that are 1
+     */
+    public int popCount() {
+        int count = 0;
+        for (int w = 0; w < wordCount(); w++) {
+            count += Long.bitCount(this.words[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the bits of this string packed into bytes, most significant
+     * bit of each byte first. The last byte is padded with 0 bits.
+     * @return an array of (length() + 7) / 8 bytes
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[(this.bitLength + Byte.SIZE - 1) / Byte.SIZE];
+        for (int i = 0; i < bytes.length; i++) {
+            int shift = WORD_SIZE - Byte.SIZE * (i % Long.BYTES + 1);
+            bytes[i] = (byte) (this.words[i / Long.BYTES] >>> shift);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the bits of this string packed into words, bit
+     * <code>64 * w</code> as the most significant bit of word
+     * <code>w</code>. The last word is padded with 0 bits.
+     * @return an array of wordCount() words
+     */
+    public long[] toLongArray() {
+        return Arrays.copyOf(this.words, wordCount());
+    }
+
+    /**
+     * Indicates whether some other object is a bit string with the same
+     * bits as this one.
+     * @param o the reference object with which to compare
+     * @return true if o is a StringOfBits of the same length and bits
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StringOfBits)) {
+            return false;
+        }
+        StringOfBits other = (StringOfBits) o;
+        if (this.bitLength != other.bitLength) {
+            return false;
+        }
+        for (int w = 0; w < wordCount(); w++) {
+            if (this.words[w] != other.words[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code computed from the length and words of this bit
+     * string, consistent with equals.
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int hash = this.bitLength;
+        for (int w = 0; w < wordCount(); w++) {
+            hash = HASH_MULTIPLIER * hash + Long.hashCode(this.words[w]);
+        }
+        return hash;
+    }
+
+    /**
+     * Compares this bit string with another lexicographically. A proper
+     * prefix comes before the strings it begins. Since bits past the end
+     * read as 0, whole words can be compared as unsigned numbers, with the
+     * lengths deciding when all words agree.
+     * @param other the bit string to be compared
+     * @return a negative integer, zero, or a positive integer as this bit
+     *         string is less than, equal to, or greater than the other
+     */
+    @Override
+    public int compareTo(final StringOfBits other) {
+        int n = Math.min(wordCount(), other.wordCount());
+        for (int w = 0; w < n; w++) {
+            if (this.words[w] != other.words[w]) {
+                return Long.compareUnsigned(this.words[w], other.words[w]);
+            }
+        }
+        for (int w = n; w < wordCount(); w++) {
+            if (this.words[w] != 0) {
+                return 1;
+            }
+        }
+        for (int w = n; w < other.wordCount(); w++) {
+            if (other.words[w] != 0) {
+                return -1;
+            }
+        }
+        return Integer.compare(this.bitLength, other.bitLength);
     }
 
     @Override
     public String toString() {
-        String str = "";
-        for (int i : this.bits) {
-            str += i;
+        StringBuilder str = new StringBuilder(this.bitLength);
+        for (int i = 0; i < this.bitLength; i++) {
+            str.append((char) ('0' + getBit(i)));
+        }
+        return str.toString();
+    }
+
+    /**
+     * Clears the bits of the last word past the end of this bit string.
+     */
+    private void clearTail() {
+        int remainder = this.bitLength & WORD_MASK;
+        if (remainder != 0) {
+            this.words[this.bitLength >>> WORD_SHIFT] &=
+                    -1L << (WORD_SIZE - remainder);
         }
-        return str;
     }
 
     /**
-     * Utility method for converting a string representation of a bit string
-     * to a list of integers (0 or 1).
-     * @param bitString the string to be converted
-     * @return an arraylist of bits; if the original string contained
-     *         characters other than 0 or 1, they are converted to 0.
+     * Appends a single bit (0 or 1) to this bit string.
+     * @param bit the bit to append
+     * @return a reference to this bit string
+     */
+    private StringOfBits appendBit(final int bit) {
+        ensureCapacity(this.bitLength + 1);
+        if (bit == 1) {
+            this.words[this.bitLength >>> WORD_SHIFT] |= maskFor(bitLength);
+        }
+        this.bitLength++;
+        return this;
+    }
+
+    /**
+     * Sets the bit at the specified index, extending this bit string with 0
+     * bits if the index is at or past the current length.
+     * @param index the index of the bit to modify
+     * @param bit the new bit value (0 or 1)
+     * @throws IndexOutOfBoundsException if index is negative
+     */
+    private void putBit(final int index, final int bit)
+            throws IndexOutOfBoundsException {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (index >= this.bitLength) {
+            ensureCapacity(index + 1);
+            this.bitLength = index + 1;
+        }
+        if (bit == 1) {
+            this.words[index >>> WORD_SHIFT] |= maskFor(index);
+        } else {
+            this.words[index >>> WORD_SHIFT] &= ~maskFor(index);
+        }
+    }
+
+    /**
+     * Reads the bit at the specified index without bounds checking.
+     * @param index the index of the bit to read
+     * @return the bit value (0 or 1)
+     */
+    private int getBit(final int index) {
+        return (int) (this.words[index >>> WORD_SHIFT]
+                >>> (WORD_MASK - (index & WORD_MASK))) & 1;
+    }
+
+    /**
+     * Grows the internal array, if necessary, to hold the given number of
+     * bits. Capacity at least doubles on each growth so that repeated
+     * appends run in amortized constant time.
+     * @param nbits the number of bits the array must be able to hold
+     */
+    private void ensureCapacity(final int nbits) {
+        int needed = wordsFor(nbits);
+        if (needed > this.words.length) {
+            this.words = Arrays.copyOf(this.words,
+                    Math.max(needed, this.words.length * 2));
+        }
+    }
+
+    /**
+     * Utility method returning the single-bit mask for an index within its
+     * word.
+     * @param index the bit index
+     * @return a long with only the bit for the index set
+     */
+    private static long maskFor(final int index) {
+        return 1L << (WORD_MASK - (index & WORD_MASK));
+    }
+
+    /**
+     * Utility method returning the number of words needed for a bit count.
+     * @param nbits the number of bits
+     * @return the number of 64-bit words needed to hold that many bits
      */
-    private static ArrayList<Integer> toBitList(final String bitString) {
-        ArrayList<Integer> bitList = new ArrayList<>();
-        bitString.chars().mapToObj(c -> (char) c)
-                         .map(StringOfBits::charToInt)
-                         .forEach(bitList::add);
-        return bitList;
+    private static int wordsFor(final int nbits) {
+        return (nbits + WORD_MASK) >>> WORD_SHIFT;
     }
 
     /**
@@ -1,7 +1,11 @@
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
 
 /**
  * Tests for StringOfBits.
@@ -414,5 +418,198 @@ public class StringOfBitsTest {
         assertEquals(DEFAULT.toString(), DEFAULT_STRING);
         assertEquals(new StringOfBits("111").toString(), "111");
     }
-}
 
+    /**
+     * Tests for appending right-aligned bits from a long.
+     */
+    @Test
+    public void appendLongBitsTest() {
+        mt.append(0b110L, 3);
+        assertEquals(mt.toString(), "110");
+        mt.append(0xFFL, 0);
+        assertEquals(mt.length(), 3);
+        mt.append(-1L, 64);
+        assertEquals(mt.length(), 67);
+        assertEquals(mt.intAt(66), 1);
+        sb.append(0b01L, 2);
+        assertEquals(sb.toString(), DEFAULT_STRING + "01");
+    }
+
+    /**
+     * Verifies exception for an out of range append count.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void appendLongBitsCountException() {
+        mt.append(0L, 65);
+    }
+
+    /**
+     * Verifies bit strings spanning several words are appended intact.
+     */
+    @Test
+    public void appendMultiWordBitStringTest() {
+        StringBuilder expected = new StringBuilder(DEFAULT_STRING);
+        StringOfBits longBits = new StringOfBits();
+        for (int i = 0; i < 150; i++) {
+            longBits.append(i % 3 == 0);
+        }
+        for (int i = 0; i < 150; i++) {
+            expected.append(i % 3 == 0 ? '1' : '0');
+        }
+        sb.append(longBits);
+        assertEquals(sb.length(), 154);
+        assertEquals(sb.toString(), expected.toString());
+        sb.append(sb);
+        assertEquals(sb.toString(), expected.toString() + expected);
+    }
+
+    /**
+     * Tests for multi-bit and word-level reads.
+     */
+    @Test
+    public void bitsAtTest() {
+        assertEquals(DEFAULT.bitsAt(0, 4), 0b1010L);
+        assertEquals(DEFAULT.bitsAt(1, 2), 0b01L);
+        assertEquals(DEFAULT.bitsAt(2, 4), 0b1000L);
+        assertEquals(DEFAULT.bitsAt(4, 0), 0L);
+        mt.append(0L, 60).append(0b10111L, 5);
+        assertEquals(mt.bitsAt(59, 6), 0b010111L);
+        assertEquals(mt.wordCount(), 2);
+        assertEquals(mt.wordAt(1), Long.MIN_VALUE);
+        assertEquals(mt.wordAt(5), 0L);
+    }
+
+    /**
+     * Verifies exception for a read starting past the end.
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void bitsAtIndexException() {
+        DEFAULT.bitsAt(5, 1);
+    }
+
+    /**
+     * Generates a bit string spanning several words.
+     * @param length the number of bits
+     * @return bits in which every third bit is 1
+     */
+    private static StringOfBits longBits(final int length) {
+        StringOfBits bits = new StringOfBits();
+        for (int i = 0; i < length; i++) {
+            bits.append(i % 3 == 0);
+        }
+        return bits;
+    }
+
+    /**
+     * Tests for extracting ranges of bits.
+     */
+    @Test
+    public void subBitsTest() {
+        assertEquals(DEFAULT.subBits(1, 3).toString(), "01");
+        assertEquals(DEFAULT.subBits(2, 2).length(), 0);
+        StringOfBits bits = longBits(150);
+        String str = bits.toString();
+        assertEquals(bits.subBits(5, 140).toString(), str.substring(5, 140));
+        assertEquals(bits.subBits(0, 150), bits);
+    }
+
+    /**
+     * Verifies exception for a range past the end.
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void subBitsIndexException() {
+        DEFAULT.subBits(2, 5);
+    }
+
+    /**
+     * Tests for equality and hash codes.
+     */
+    @Test
+    public void equalsHashCodeTest() {
+        assertEquals(new StringOfBits(DEFAULT_STRING), DEFAULT);
+        assertEquals(new StringOfBits(DEFAULT_STRING).hashCode(),
+                DEFAULT.hashCode());
+        assertFalse(new StringOfBits("10100").equals(DEFAULT));
+        assertFalse(new StringOfBits("1011").equals(DEFAULT));
+        assertFalse(DEFAULT.equals(DEFAULT_STRING));
+        StringOfBits bits = longBits(150);
+        StringOfBits copy = new StringOfBits(bits.toString());
+        assertEquals(copy, bits);
+        assertEquals(copy.hashCode(), bits.hashCode());
+        copy.setBitAt(149, 1);
+        assertFalse(copy.equals(bits));
+    }
+
+    /**
+     * Tests for lexicographic order.
+     */
+    @Test
+    public void compareToTest() {
+        String[] sorted = {"", "0", "00", "001", "01", "1", "10", "1010",
+            "11"};
+        for (int i = 0; i < sorted.length; i++) {
+            for (int j = 0; j < sorted.length; j++) {
+                int order = new StringOfBits(sorted[i]).compareTo(
+                        new StringOfBits(sorted[j]));
+                assertEquals(Integer.signum(order), Integer.compare(i, j));
+            }
+        }
+        StringOfBits bits = longBits(150);
+        StringOfBits longer = new StringOfBits(bits).append(0);
+        assertTrue(bits.compareTo(longer) < 0);
+        assertTrue(bits.subBits(0, 70).compareTo(bits) < 0);
+        assertTrue(bits.compareTo(bits.subBits(1, 150)) > 0);
+    }
+
+    /**
+     * Tests for prefix checks.
+     */
+    @Test
+    public void startsWithTest() {
+        assertTrue(DEFAULT.startsWith(EMPTY));
+        assertTrue(DEFAULT.startsWith(new StringOfBits("101")));
+        assertTrue(DEFAULT.startsWith(DEFAULT));
+        assertFalse(DEFAULT.startsWith(new StringOfBits("11")));
+        assertFalse(DEFAULT.startsWith(new StringOfBits("10100")));
+        StringOfBits bits = longBits(150);
+        assertTrue(bits.startsWith(bits.subBits(0, 129)));
+        assertFalse(bits.startsWith(bits.subBits(1, 130)));
+    }
+
+    /**
+     * Tests for counting 1 bits.
+     */
+    @Test
+    public void popCountTest() {
+        assertEquals(EMPTY.popCount(), 0);
+        assertEquals(DEFAULT.popCount(), 2);
+        assertEquals(longBits(150).popCount(), 50);
+    }
+
+    /**
+     * Tests for conversions to and from arrays.
+     */
+    @Test
+    public void arrayConversionTest() {
+        assertTrue(Arrays.equals(DEFAULT.toByteArray(),
+                new byte[] {(byte) 0b10100000}));
+        assertTrue(Arrays.equals(DEFAULT.toLongArray(),
+                new long[] {0b1010L << 60}));
+        StringOfBits bits = longBits(150);
+        assertEquals(bits.toByteArray().length, 19);
+        assertEquals(StringOfBits.valueOf(bits.toByteArray(), 150), bits);
+        assertEquals(StringOfBits.valueOf(bits.toLongArray(), 150), bits);
+        assertEquals(StringOfBits.valueOf(new byte[] {(byte) 0xFF}, 3),
+                new StringOfBits("111"));
+        assertEquals(StringOfBits.valueOf(new long[] {-1L, -1L}, 65)
+                .popCount(), 65);
+    }
+
+    /**
+     * Verifies exception for a length longer than the array.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void valueOfLengthException() {
+        StringOfBits.valueOf(new byte[1], 9);
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts the values stored in a {@link BinaryTree} to and from bytes for
+ * the tree's compact binary format. A codec must read back exactly the
+ * bytes it wrote for each value.
+ *
+ * @param <T> the type of value converted
+ * @author Bennett Alex Myers
+ * @version 17 October 2016
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * Writes a value.
+     * @param value the value to write; never null
+     * @param out the output to which to write
+     * @throws IOException if an IO error occurs
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write(Object, DataOutput)}.
+     * @param in the input from which to read
+     * @return the value read; must not be null
+     * @throws IOException if an IO error occurs or the data is corrupt
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Returns a codec for strings, written in modified UTF-8 as by
+     * {@link DataOutput#writeUTF(String)}.
+     * @return a codec for strings of at most 65535 encoded bytes
+     */
+    static ValueCodec<String> strings() {
+        return new ValueCodec<String>() {
+            @Override
+            public void write(final String value, final DataOutput out)
+                    throws IOException {
+                out.writeUTF(value);
+            }
+
+            @Override
+            public String read(final DataInput in) throws IOException {
+                return in.readUTF();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for integers, written as four bytes.
+     * @return a codec for integers
+     */
+    static ValueCodec<Integer> integers() {
+        return new ValueCodec<Integer>() {
+            @Override
+            public void write(final Integer value, final DataOutput out)
+                    throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer read(final DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+}